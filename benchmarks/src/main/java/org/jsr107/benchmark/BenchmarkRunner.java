@@ -0,0 +1,74 @@
+/**
+ * Copyright 2011-2016 Terracotta, Inc.
+ * Copyright 2011-2016 Oracle America Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jsr107.benchmark;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks once for each of a list of thread counts, so that the
+ * scalability of a provider can be compared with a single command.
+ * <p>
+ * The thread counts are taken from the <code>jsr107.benchmark.threads</code>
+ * system property as a comma separated list, defaulting to
+ * <code>1,2,4,8</code>.  All other arguments are passed to JMH, for example:
+ * <pre>
+ *   java -Djsr107.benchmark.threads=1,16 -jar target/benchmarks.jar \
+ *       CacheBenchmark.get -p keyCount=1000000 -rf json
+ * </pre>
+ *
+ * @since 1.2
+ */
+public final class BenchmarkRunner {
+
+  /**
+   * The system property that defines the thread counts to benchmark.
+   */
+  public static final String THREADS_PROPERTY = "jsr107.benchmark.threads";
+
+  /**
+   * No public constructor as all methods are static.
+   */
+  private BenchmarkRunner() {
+  }
+
+  /**
+   * Runs the benchmarks.
+   *
+   * @param args the JMH command line arguments
+   * @throws CommandLineOptionException should the arguments be invalid
+   * @throws RunnerException            should a benchmark fail
+   */
+  public static void main(String[] args) throws CommandLineOptionException,
+      RunnerException {
+    CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+
+    for (String threads : System.getProperty(THREADS_PROPERTY, "1,2,4,8").split(",")) {
+      ChainedOptionsBuilder options = new OptionsBuilder()
+          .parent(commandLineOptions)
+          .threads(Integer.parseInt(threads.trim()));
+      if (commandLineOptions.getIncludes().isEmpty()) {
+        options.include(CacheBenchmark.class.getSimpleName());
+      }
+      new Runner(options.build()).run();
+    }
+  }
+}
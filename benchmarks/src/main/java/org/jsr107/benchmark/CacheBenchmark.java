@@ -0,0 +1,179 @@
+/**
+ * Copyright 2011-2016 Terracotta, Inc.
+ * Copyright 2011-2016 Oracle America Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jsr107.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.cache.Cache;
+import javax.cache.processor.EntryProcessor;
+import javax.cache.processor.EntryProcessorException;
+import javax.cache.processor.EntryProcessorResult;
+import javax.cache.processor.MutableEntry;
+import java.io.Serializable;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks each of the principal {@link Cache} operations.
+ * <p>
+ * Throughput is reported in operations per second and the latency
+ * distribution, including the p99, is reported from sampled operations.
+ * The thread count is chosen with the JMH <code>-t</code> option, or by
+ * {@link BenchmarkRunner} which runs the benchmarks for a list of thread
+ * counts.
+ *
+ * @since 1.2
+ * @see CacheState
+ * @see KeyState
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class CacheBenchmark {
+
+  /**
+   * Benchmarks {@link Cache#get(Object)}.
+   *
+   * @param state the {@link CacheState}
+   * @param keys  the {@link KeyState}
+   * @return the value, or null on a miss
+   */
+  @Benchmark
+  public byte[] get(CacheState state, KeyState keys) {
+    return state.getCache().get(keys.nextReadKey());
+  }
+
+  /**
+   * Benchmarks {@link Cache#put(Object, Object)} of an existing key.
+   *
+   * @param state the {@link CacheState}
+   * @param keys  the {@link KeyState}
+   */
+  @Benchmark
+  public void put(CacheState state, KeyState keys) {
+    state.getCache().put(keys.nextWriteKey(), state.getValue());
+  }
+
+  /**
+   * Benchmarks {@link Cache#getAll(java.util.Set)}.
+   *
+   * @param state the {@link CacheState}
+   * @param keys  the {@link KeyState}
+   * @return the values found
+   */
+  @Benchmark
+  public Map<Long, byte[]> getAll(CacheState state, KeyState keys) {
+    return state.getCache().getAll(keys.nextReadKeySet());
+  }
+
+  /**
+   * Benchmarks {@link Cache#putAll(Map)} of existing keys.
+   *
+   * @param state the {@link CacheState}
+   * @param keys  the {@link KeyState}
+   */
+  @Benchmark
+  public void putAll(CacheState state, KeyState keys) {
+    state.getCache().putAll(keys.nextWriteBatch());
+  }
+
+  /**
+   * Benchmarks {@link Cache#invoke(Object, EntryProcessor, Object...)} with a
+   * read-modify-write {@link EntryProcessor}.
+   *
+   * @param state the {@link CacheState}
+   * @param keys  the {@link KeyState}
+   * @return the length of the previous value
+   */
+  @Benchmark
+  public Integer invoke(CacheState state, KeyState keys) {
+    return state.getCache().invoke(keys.nextWriteKey(), ReplaceProcessor.INSTANCE,
+        state.getValue());
+  }
+
+  /**
+   * Benchmarks {@link Cache#invokeAll(java.util.Set, EntryProcessor, Object...)}
+   * with a read-modify-write {@link EntryProcessor}.
+   *
+   * @param state the {@link CacheState}
+   * @param keys  the {@link KeyState}
+   * @return the results of the {@link EntryProcessor}
+   */
+  @Benchmark
+  public Map<Long, EntryProcessorResult<Integer>> invokeAll(CacheState state,
+                                                            KeyState keys) {
+    return state.getCache().invokeAll(keys.nextWriteKeySet(),
+        ReplaceProcessor.INSTANCE, state.getValue());
+  }
+
+  /**
+   * Benchmarks a complete iteration over the {@link Cache} with
+   * {@link Cache#iterator()}.
+   *
+   * @param state     the {@link CacheState}
+   * @param blackhole consumes the iterated entries
+   */
+  @Benchmark
+  public void iterator(CacheState state, Blackhole blackhole) {
+    Iterator<Cache.Entry<Long, byte[]>> iterator = state.getCache().iterator();
+    while (iterator.hasNext()) {
+      Cache.Entry<Long, byte[]> entry = iterator.next();
+      blackhole.consume(entry.getKey());
+      blackhole.consume(entry.getValue());
+    }
+  }
+
+  /**
+   * An {@link EntryProcessor} that replaces the value of an entry with the
+   * first argument, returning the length of the previous value.  It is
+   * {@link Serializable} so that it may be used with distributed providers.
+   */
+  public static final class ReplaceProcessor
+      implements EntryProcessor<Long, byte[], Integer>, Serializable {
+
+    /**
+     * The serialVersionUID required for {@link java.io.Serializable}.
+     */
+    public static final long serialVersionUID = 202610171200L;
+
+    /**
+     * The shared {@link ReplaceProcessor}.
+     */
+    public static final ReplaceProcessor INSTANCE = new ReplaceProcessor();
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Integer process(MutableEntry<Long, byte[]> entry,
+                           Object... arguments) throws EntryProcessorException {
+      int length = entry.exists() ? entry.getValue().length : 0;
+      entry.setValue((byte[]) arguments[0]);
+      return length;
+    }
+  }
+}
@@ -0,0 +1,167 @@
+/**
+ * Copyright 2011-2016 Terracotta, Inc.
+ * Copyright 2011-2016 Oracle America Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jsr107.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.configuration.MutableConfiguration;
+import javax.cache.spi.CachingProvider;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The shared benchmark state: a {@link Cache} created through the single
+ * {@link CachingProvider} returned by {@link Caching#getCachingProvider()} and
+ * populated with {@link #keyCount} entries of {@link #valueSize} bytes.
+ * <p>
+ * Only the portable {@link MutableConfiguration} is used to configure the
+ * {@link Cache}, so that the same benchmark compares providers on equal terms.
+ *
+ * @since 1.2
+ */
+@State(Scope.Benchmark)
+public class CacheState {
+
+  /**
+   * The name of the {@link Cache} used by the benchmarks.
+   */
+  public static final String CACHE_NAME = "jsr107-benchmark";
+
+  /**
+   * The number of entries placed in the {@link Cache} before measuring.
+   */
+  @Param({"1000", "100000"})
+  public int keyCount;
+
+  /**
+   * The size, in bytes, of each cached value.
+   */
+  @Param({"16", "1024"})
+  public int valueSize;
+
+  /**
+   * The fraction of reads that are expected to find an entry, between 0
+   * (exclusive) and 1 (inclusive).
+   */
+  @Param({"1.0", "0.8"})
+  public double hitRatio;
+
+  /**
+   * The number of keys used by each bulk operation.
+   */
+  @Param({"10"})
+  public int batchSize;
+
+  /**
+   * Whether the {@link Cache} is configured store-by-value.
+   */
+  @Param({"true"})
+  public boolean storeByValue;
+
+  private CachingProvider provider;
+
+  private CacheManager cacheManager;
+
+  private Cache<Long, byte[]> cache;
+
+  private byte[] value;
+
+  /**
+   * Creates and populates the {@link Cache}.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    if (hitRatio <= 0 || hitRatio > 1) {
+      throw new IllegalArgumentException("hitRatio must be in the range (0, 1]");
+    }
+
+    provider = Caching.getCachingProvider();
+    cacheManager = provider.getCacheManager();
+
+    if (cacheManager.getCache(CACHE_NAME, Long.class, byte[].class) != null) {
+      cacheManager.destroyCache(CACHE_NAME);
+    }
+
+    MutableConfiguration<Long, byte[]> configuration =
+        new MutableConfiguration<Long, byte[]>()
+            .setTypes(Long.class, byte[].class)
+            .setStoreByValue(storeByValue)
+            .setStatisticsEnabled(false);
+
+    cache = cacheManager.createCache(CACHE_NAME, configuration);
+
+    value = new byte[valueSize];
+    for (int i = 0; i < valueSize; i++) {
+      value[i] = (byte) i;
+    }
+
+    Map<Long, byte[]> batch = new HashMap<Long, byte[]>();
+    for (long key = 0; key < keyCount; key++) {
+      batch.put(key, value);
+      if (batch.size() == 1000) {
+        cache.putAll(batch);
+        batch.clear();
+      }
+    }
+    cache.putAll(batch);
+  }
+
+  /**
+   * Destroys the {@link Cache} and closes the {@link CacheManager}.
+   */
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    cacheManager.destroyCache(CACHE_NAME);
+    cacheManager.close();
+  }
+
+  /**
+   * Obtains the {@link Cache} under test.
+   *
+   * @return the {@link Cache}
+   */
+  public Cache<Long, byte[]> getCache() {
+    return cache;
+  }
+
+  /**
+   * Obtains the value written by mutating benchmarks.
+   *
+   * @return a value of {@link #valueSize} bytes
+   */
+  public byte[] getValue() {
+    return value;
+  }
+
+  /**
+   * Obtains the exclusive upper bound of keys used for reads, chosen so that
+   * the expected fraction of reads that hit is {@link #hitRatio}.
+   *
+   * @return the upper bound of read keys
+   */
+  public long getReadKeyRange() {
+    return Math.max(keyCount, (long) Math.ceil(keyCount / hitRatio));
+  }
+}
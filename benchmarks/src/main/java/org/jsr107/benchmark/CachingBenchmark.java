@@ -0,0 +1,116 @@
+/**
+ * Copyright 2011-2016 Terracotta, Inc.
+ * Copyright 2011-2016 Oracle America Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jsr107.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.configuration.MutableConfiguration;
+import javax.cache.spi.CachingProvider;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks looking up {@link CachingProvider}s and {@link Cache}s through
+ * {@link Caching}, which applications commonly do on every request.
+ * <p>
+ * Run with {@link BenchmarkRunner} to show how the lookups scale with the
+ * number of threads, for example:
+ * <pre>
+ *   java -Djsr107.benchmark.threads=1,2,4,8,16 -jar target/benchmarks.jar \
+ *       CachingBenchmark
+ * </pre>
+ *
+ * @since 1.2
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CachingBenchmark {
+
+  private CacheManager cacheManager;
+
+  private String providerClassName;
+
+  /**
+   * Creates the {@link Cache} to be looked up.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    CachingProvider provider = Caching.getCachingProvider();
+    providerClassName = provider.getClass().getName();
+    cacheManager = provider.getCacheManager();
+    if (cacheManager.getCache(CacheState.CACHE_NAME, Long.class, byte[].class) == null) {
+      cacheManager.createCache(CacheState.CACHE_NAME,
+          new MutableConfiguration<Long, byte[]>().setTypes(Long.class, byte[].class));
+    }
+  }
+
+  /**
+   * Destroys the {@link Cache} and closes the {@link CacheManager}.
+   */
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    cacheManager.destroyCache(CacheState.CACHE_NAME);
+    cacheManager.close();
+  }
+
+  /**
+   * Benchmarks {@link Caching#getCachingProvider()}.
+   *
+   * @return the {@link CachingProvider}
+   */
+  @Benchmark
+  public CachingProvider getCachingProvider() {
+    return Caching.getCachingProvider();
+  }
+
+  /**
+   * Benchmarks {@link Caching#getCachingProvider(String)}.
+   *
+   * @return the {@link CachingProvider}
+   */
+  @Benchmark
+  public CachingProvider getCachingProviderByName() {
+    return Caching.getCachingProvider(providerClassName);
+  }
+
+  /**
+   * Benchmarks {@link Caching#getCache(String, Class, Class)}.
+   *
+   * @return the {@link Cache}
+   */
+  @Benchmark
+  public Cache<Long, byte[]> getCache() {
+    return Caching.getCache(CacheState.CACHE_NAME, Long.class, byte[].class);
+  }
+}
@@ -0,0 +1,168 @@
+/**
+ * Copyright 2011-2016 Terracotta, Inc.
+ * Copyright 2011-2016 Oracle America Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jsr107.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Per-thread sequences of keys, key sets and entry maps.
+ * <p>
+ * All keys are generated and boxed up-front, so that the benchmarks measure
+ * the {@link javax.cache.Cache} and not the random number generator or the
+ * allocation of keys.
+ *
+ * @since 1.2
+ */
+@State(Scope.Thread)
+public class KeyState {
+
+  /**
+   * The number of pre-generated keys per thread. A power of two.
+   */
+  private static final int SEQUENCE_LENGTH = 1 << 16;
+
+  /**
+   * The number of pre-generated key sets and maps per thread. A power of two.
+   */
+  private static final int BATCH_SEQUENCE_LENGTH = 1 << 10;
+
+  private Long[] readKeys;
+
+  private Long[] writeKeys;
+
+  private Set<Long>[] readKeySets;
+
+  private Set<Long>[] writeKeySets;
+
+  private Map<Long, byte[]>[] writeBatches;
+
+  private int index;
+
+  private int batchIndex;
+
+  /**
+   * Generates the key sequences for this thread.
+   *
+   * @param state the shared {@link CacheState}
+   */
+  @Setup(Level.Trial)
+  @SuppressWarnings("unchecked")
+  public void setUp(CacheState state) {
+    Random random = new Random(Thread.currentThread().getId());
+    long readKeyRange = state.getReadKeyRange();
+
+    readKeys = new Long[SEQUENCE_LENGTH];
+    writeKeys = new Long[SEQUENCE_LENGTH];
+    for (int i = 0; i < SEQUENCE_LENGTH; i++) {
+      readKeys[i] = nextKey(random, readKeyRange);
+      writeKeys[i] = nextKey(random, state.keyCount);
+    }
+
+    readKeySets = new Set[BATCH_SEQUENCE_LENGTH];
+    writeKeySets = new Set[BATCH_SEQUENCE_LENGTH];
+    writeBatches = new Map[BATCH_SEQUENCE_LENGTH];
+    for (int i = 0; i < BATCH_SEQUENCE_LENGTH; i++) {
+      Set<Long> readKeySet = new HashSet<Long>();
+      Set<Long> writeKeySet = new HashSet<Long>();
+      Map<Long, byte[]> writeBatch = new HashMap<Long, byte[]>();
+      int size = Math.min(state.batchSize, state.keyCount);
+      while (readKeySet.size() < size) {
+        readKeySet.add(nextKey(random, readKeyRange));
+      }
+      while (writeKeySet.size() < size) {
+        Long key = nextKey(random, state.keyCount);
+        writeKeySet.add(key);
+        writeBatch.put(key, state.getValue());
+      }
+      readKeySets[i] = readKeySet;
+      writeKeySets[i] = writeKeySet;
+      writeBatches[i] = writeBatch;
+    }
+  }
+
+  /**
+   * Obtains the next key to read, which may or may not be cached depending on
+   * the configured hit ratio.
+   *
+   * @return the key
+   */
+  public Long nextReadKey() {
+    return readKeys[nextIndex()];
+  }
+
+  /**
+   * Obtains the next key to write, which is always in the populated key range
+   * so that the size of the cache remains constant.
+   *
+   * @return the key
+   */
+  public Long nextWriteKey() {
+    return writeKeys[nextIndex()];
+  }
+
+  /**
+   * Obtains the next set of keys to read.
+   *
+   * @return the keys
+   */
+  public Set<Long> nextReadKeySet() {
+    return readKeySets[nextBatchIndex()];
+  }
+
+  /**
+   * Obtains the next set of keys to write.
+   *
+   * @return the keys
+   */
+  public Set<Long> nextWriteKeySet() {
+    return writeKeySets[nextBatchIndex()];
+  }
+
+  /**
+   * Obtains the next map of entries to write.
+   *
+   * @return the entries
+   */
+  public Map<Long, byte[]> nextWriteBatch() {
+    return writeBatches[nextBatchIndex()];
+  }
+
+  private int nextIndex() {
+    int next = index;
+    index = (next + 1) & (SEQUENCE_LENGTH - 1);
+    return next;
+  }
+
+  private int nextBatchIndex() {
+    int next = batchIndex;
+    batchIndex = (next + 1) & (BATCH_SEQUENCE_LENGTH - 1);
+    return next;
+  }
+
+  private static Long nextKey(Random random, long range) {
+    return Long.valueOf((random.nextLong() & Long.MAX_VALUE) % range);
+  }
+}
@@ -0,0 +1,150 @@
+/**
+ * Copyright 2011-2016 Terracotta, Inc.
+ * Copyright 2011-2016 Oracle America Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.cache;
+
+import javax.cache.integration.CacheLoader;
+import javax.cache.integration.CacheWriter;
+import javax.cache.processor.EntryProcessor;
+import javax.cache.processor.EntryProcessorException;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An asynchronous view of a {@link Cache}, whose operations return a
+ * {@link CacheFuture} instead of blocking the calling thread.
+ * <p>
+ * Each operation has the same semantics as the corresponding {@link Cache}
+ * operation, including read-through, write-through, expiry, event and
+ * statistics behavior, differing only in that the result, or the exception
+ * that would have been thrown, is provided through the returned
+ * {@link CacheFuture}.  Exceptions caused by invalid arguments, such as
+ * {@link NullPointerException}s, and the {@link IllegalStateException} thrown
+ * when the {@link Cache} is closed, are thrown directly.
+ * <p>
+ * Implementations should perform the operations without blocking a thread per
+ * operation, for example by pipelining requests to a remote or tiered store,
+ * so that applications may issue many operations concurrently.  The order in
+ * which concurrently issued operations are performed is undefined, except that
+ * operations on the same key issued by the same thread are performed in the
+ * order they were issued.
+ * <p>
+ * An {@link AsyncCache} is obtained from a {@link Cache} using
+ * {@link Cache#unwrap(Class)}.  Implementations that do not support
+ * asynchronous operations throw an {@link IllegalArgumentException}.
+ * <pre><code>
+ * AsyncCache&lt;Long, Order&gt; asyncCache = cache.unwrap(AsyncCache.class);
+ *
+ * CacheFuture&lt;Order&gt; order = asyncCache.getAsync(orderId);
+ * CacheFuture&lt;Customer&gt; customer = customers.getAsync(customerId);
+ *
+ * //both operations are in progress concurrently
+ * render(order.get(), customer.get());
+ * </code></pre>
+ *
+ * @param <K> the type of key
+ * @param <V> the type of value
+ * @since 1.2
+ * @see CacheFuture
+ */
+public interface AsyncCache<K, V> {
+
+  /**
+   * Asynchronously gets an entry from the cache.
+   * <p>
+   * If the cache is configured to use read-through, and the entry is missing
+   * from the cache, the {@link CacheLoader} is called in an attempt to load the
+   * entry.
+   *
+   * @param key the key whose associated value is to be returned
+   * @return a {@link CacheFuture} for the value, or null if it does not exist
+   * @throws IllegalStateException if the cache is {@link Cache#isClosed()}
+   * @throws NullPointerException  if the key is null
+   * @see Cache#get(Object)
+   */
+  CacheFuture<V> getAsync(K key);
+
+  /**
+   * Asynchronously gets a collection of entries from the cache.
+   * <p>
+   * If the cache is configured read-through, the {@link CacheLoader} is called
+   * in an attempt to load missing entries. Keys for which no value could be
+   * found or loaded are not present in the resulting {@link Map}.
+   *
+   * @param keys the keys whose associated values are to be returned
+   * @return a {@link CacheFuture} for the {@link Map} of entries found
+   * @throws IllegalStateException if the cache is {@link Cache#isClosed()}
+   * @throws NullPointerException  if keys is null or if keys contains a null
+   * @see Cache#getAll(Set)
+   */
+  CacheFuture<Map<K, V>> getAllAsync(Set<? extends K> keys);
+
+  /**
+   * Asynchronously associates the specified value with the specified key in
+   * the cache.
+   * <p>
+   * If the cache is configured write-through the
+   * {@link CacheWriter#write(Cache.Entry)} method will be called before the
+   * returned {@link CacheFuture} completes.
+   *
+   * @param key   key with which the specified value is to be associated
+   * @param value value to be associated with the specified key
+   * @return a {@link CacheFuture} that completes once the value is stored
+   * @throws IllegalStateException if the cache is {@link Cache#isClosed()}
+   * @throws NullPointerException  if key is null or if value is null
+   * @see Cache#put(Object, Object)
+   */
+  CacheFuture<Void> putAsync(K key, V value);
+
+  /**
+   * Asynchronously removes the mapping for a key from the cache if it is
+   * present.
+   * <p>
+   * If the cache is configured write-through the
+   * {@link CacheWriter#delete(Object)} method will be called before the
+   * returned {@link CacheFuture} completes.
+   *
+   * @param key key whose mapping is to be removed from the cache
+   * @return a {@link CacheFuture} for <code>true</code> if a mapping was removed
+   * @throws IllegalStateException if the cache is {@link Cache#isClosed()}
+   * @throws NullPointerException  if key is null
+   * @see Cache#remove(Object)
+   */
+  CacheFuture<Boolean> removeAsync(K key);
+
+  /**
+   * Asynchronously invokes an {@link EntryProcessor} against the
+   * {@link Cache.Entry} specified by the provided key.
+   * <p>
+   * Should the {@link EntryProcessor} throw an exception the returned
+   * {@link CacheFuture} completes exceptionally with an
+   * {@link EntryProcessorException}.
+   *
+   * @param <T>            the type of the return value
+   * @param key            the key to the entry
+   * @param entryProcessor the {@link EntryProcessor} to invoke
+   * @param arguments      additional arguments to pass to the
+   *                       {@link EntryProcessor}
+   * @return a {@link CacheFuture} for the result of the processing, if any,
+   *         defined by the {@link EntryProcessor} implementation
+   * @throws IllegalStateException if the cache is {@link Cache#isClosed()}
+   * @throws NullPointerException  if key or {@link EntryProcessor} is null
+   * @see Cache#invoke(Object, EntryProcessor, Object...)
+   */
+  <T> CacheFuture<T> invokeAsync(K key,
+                                 EntryProcessor<K, V, T> entryProcessor,
+                                 Object... arguments);
+}
@@ -18,19 +18,27 @@ package javax.cache;
 
 import javax.cache.configuration.CacheEntryListenerConfiguration;
 import javax.cache.configuration.Configuration;
+import javax.cache.event.CacheEntryEvent;
+import javax.cache.event.CacheEntryEventFilter;
+import javax.cache.event.CacheEntryEventSubscriber;
+import javax.cache.event.CacheEntryEventSubscription;
 import javax.cache.event.CacheEntryListener;
 import javax.cache.event.CacheEntryRemovedListener;
+import javax.cache.event.EventOverflowPolicy;
 import javax.cache.expiry.ExpiryPolicy;
 import javax.cache.integration.CacheLoader;
 import javax.cache.integration.CacheWriter;
 import javax.cache.integration.CompletionListener;
+import javax.cache.integration.LoadProgressListener;
 import javax.cache.processor.EntryProcessor;
 import javax.cache.processor.EntryProcessorException;
 import javax.cache.processor.EntryProcessorResult;
 import java.io.Closeable;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 
 /**
  * A {@link Cache} is a Map-like data structure that provides temporary storage
@@ -84,6 +92,11 @@ public interface Cache<K, V> extends Iterable<Cache.Entry<K, V>>, Closeable {
      * If the cache is configured to use read-through, and get would return null
      * because the entry is missing from the cache, the Cache's {@link CacheLoader}
      * is called in an attempt to load the entry.
+     * <p>
+     * Concurrent calls that miss for the same key should be coalesced, so that
+     * the {@link CacheLoader} is called once for the key and all callers are
+     * provided with the loaded value, as described by
+     * {@link #getOrLoad(Object, Callable)}.
      *
      * @param key the key whose associated value is to be returned
      * @return the element, or null, if it does not exist.
@@ -97,6 +110,56 @@ public interface Cache<K, V> extends Iterable<Cache.Entry<K, V>>, Closeable {
      */
     V get(K key);
 
+    /**
+     * Gets an entry from the cache, using the specified loader to obtain and
+     * store a value should the entry be missing from the cache.
+     * <p>
+     * If the cache contains an entry for the key, its value is returned and
+     * the loader is not called.  Otherwise the loader is called in place of any
+     * configured {@link CacheLoader}.  Should the loader return a value, it is
+     * stored in the cache as if loaded by a read-through {@link CacheLoader},
+     * using {@link javax.cache.expiry.ExpiryPolicy#getExpiryForCreation()} and
+     * notifying {@link javax.cache.event.CacheEntryCreatedListener}s, but without
+     * calling the {@link CacheWriter}.  Should the loader return
+     * <code>null</code>, nothing is stored and <code>null</code> is returned.
+     * <p>
+     * Loads are coalesced per key: while a loader is being called for a key,
+     * other calls to this method or to {@link #get(Object)} for the same key
+     * do not call their loaders, but instead wait for and return the value
+     * produced by the loader in progress.  Should that loader fail, each of the
+     * waiting calls throws a {@link javax.cache.integration.CacheLoaderException}
+     * and nothing is stored.  Consequently a value is loaded for a missing key
+     * at most once at any point in time, no matter how many threads request it.
+     * <p>
+     * The loader is called on the calling thread or, for the waiting calls, not
+     * at all.  It must not access the entry for the same key in this cache,
+     * which may cause a deadlock.
+     * <p>
+     * A {@link Callable} is used so that a loader may be supplied by Java 6
+     * applications as well as with a lambda expression, for example:
+     * <pre><code>
+     * Customer customer = cache.getOrLoad(id, () -&gt; database.findCustomer(id));
+     * </code></pre>
+     *
+     * @param key    the key whose associated value is to be returned
+     * @param loader the {@link Callable} that loads the value should the entry
+     *               be missing
+     * @return the existing or loaded value, or null if the loader returned null
+     * @throws IllegalStateException if the cache is {@link #isClosed()}
+     * @throws NullPointerException  if the key or loader is null
+     * @throws javax.cache.integration.CacheLoaderException
+     *                               if the loader throws an exception, which is
+     *                               provided as the cause
+     * @throws CacheException        if there is a problem fetching the value
+     * @throws ClassCastException    if the implementation is configured to perform
+     *                               runtime-type-checking, and the key or value
+     *                               types are incompatible with those that have been
+     *                               configured for the {@link Cache}
+     * @see #get(Object)
+     * @since 1.2
+     */
+    V getOrLoad(K key, Callable<? extends V> loader);
+
     /**
      * Gets a collection of entries from the {@link Cache}, returning them as
      * {@link Map} of the values associated with the set of keys requested.
@@ -181,6 +244,59 @@ public interface Cache<K, V> extends Iterable<Cache.Entry<K, V>>, Closeable {
     void loadAll(Set<? extends K> keys, boolean replaceExistingValues,
                  CompletionListener completionListener);
 
+    /**
+     * Asynchronously loads the specified entries into the cache using the
+     * configured {@link CacheLoader}, in chunks of keys loaded in parallel.
+     * <p>
+     * The keys are divided into chunks of at most <code>chunkSize</code> keys,
+     * each loaded with a separate call of {@link CacheLoader#loadAll(Iterable)},
+     * and up to <code>parallelism</code> chunks are loaded concurrently.
+     * Existing values are replaced as for
+     * {@link #loadAll(Set, boolean, CompletionListener)}.
+     * <p>
+     * A chunk that fails does not fail the other chunks.  As each chunk is
+     * processed, the {@link LoadProgressListener} is notified of the number of
+     * entries loaded or of the keys that failed to load.  Implementations may
+     * retry the keys of a failed chunk in smaller chunks, so that a single key
+     * that can't be loaded does not prevent the other keys of its chunk from
+     * being loaded.  Once every chunk has been processed, the listener's
+     * {@link CompletionListener#onCompletion()} is called if all keys were
+     * loaded, otherwise its {@link CompletionListener#onException(Exception)}
+     * is called with a {@link javax.cache.integration.CacheLoaderException}.
+     * <p>
+     * As for {@link #loadAll(Set, boolean, CompletionListener)}, the keys are
+     * not iterated in parallel, and if no loader is configured for the cache
+     * no objects are loaded.
+     *
+     * @param keys                  the keys to load
+     * @param replaceExistingValues when true existing values in the Cache will
+     *                              be replaced by those loaded from a CacheLoader
+     * @param chunkSize             the maximum number of keys loaded by each
+     *                              call of the {@link CacheLoader}
+     * @param parallelism           the maximum number of chunks loaded
+     *                              concurrently
+     * @param progressListener      the {@link LoadProgressListener} (may be null)
+     * @throws NullPointerException     if keys is null or if keys contains a
+     *                                  null.
+     * @throws IllegalArgumentException if chunkSize or parallelism is less than
+     *                                  one
+     * @throws IllegalStateException    if the cache is {@link #isClosed()}
+     * @throws CacheException           thrown if there is a problem performing
+     *                                  the load. This may also be thrown on
+     *                                  calling if there are insufficient threads
+     *                                  available to perform the load.
+     * @throws ClassCastException       if the implementation is configured to
+     *                                  perform runtime-type-checking, and the key
+     *                                  or value types are incompatible with those
+     *                                  that have been configured for the
+     *                                  {@link Cache}
+     * @see javax.cache.integration.LoadProgressFuture
+     * @since 1.2
+     */
+    void loadAll(Set<? extends K> keys, boolean replaceExistingValues,
+                 int chunkSize, int parallelism,
+                 LoadProgressListener<? super K> progressListener);
+
     /**
      * Associates the specified value with the specified key in the cache.
      * <p>
@@ -718,6 +834,14 @@ public interface Cache<K, V> extends Iterable<Cache.Entry<K, V>>, Closeable {
      * <p>
      * If the provider's implementation does not support the specified class,
      * the {@link IllegalArgumentException} is thrown.
+     * <p>
+     * Implementations supporting asynchronous operations return an
+     * {@link AsyncCache} view of the {@link Cache} when
+     * <code>AsyncCache.class</code> is specified, and implementations
+     * supporting {@link javax.cache.configuration.OptionalFeature#PRIMITIVE_KEYS}
+     * return a {@link LongKeyCache} or {@link IntKeyCache} view when
+     * <code>LongKeyCache.class</code> or <code>IntKeyCache.class</code> is
+     * specified for a {@link Cache} with {@link Long} or {@link Integer} keys.
      *
      * @param <T> the type of the underlying {@link Cache} implementation
      * @param clazz the proprietary class or interface of the underlying concrete
@@ -763,6 +887,44 @@ public interface Cache<K, V> extends Iterable<Cache.Entry<K, V>>, Closeable {
     void deregisterCacheEntryListener(CacheEntryListenerConfiguration<K, V>
                                               cacheEntryListenerConfiguration);
 
+    /**
+     * Subscribes to the {@link CacheEntryEvent}s of this {@link Cache}, to be
+     * delivered in batches at the rate the subscriber requests them.
+     * <p>
+     * The subscriber is first given a {@link CacheEntryEventSubscription}, with
+     * which it requests events and may cancel the subscription.  Events that
+     * pass the filter are buffered until requested, up to the buffer capacity,
+     * after which the {@link EventOverflowPolicy} applies.  With
+     * {@link EventOverflowPolicy#BLOCK}, operations mutating the cache wait
+     * for the subscriber, propagating its backpressure to writers; with
+     * {@link EventOverflowPolicy#REJECT}, the subscription fails with a
+     * {@link javax.cache.event.CacheEntryListenerException}.  Events are
+     * delivered asynchronously, in the order they occurred for each key, and
+     * with old values as for a listener whose
+     * {@link CacheEntryListenerConfiguration#isOldValueRequired()} is
+     * <code>false</code>.
+     * <p>
+     * The subscription completes when the {@link Cache} is closed.
+     *
+     * @param subscriber     the {@link CacheEntryEventSubscriber}
+     * @param filter         the {@link CacheEntryEventFilter} selecting the
+     *                       events to deliver, or <code>null</code> for all
+     *                       events
+     * @param bufferCapacity the maximum number of undelivered events
+     * @param overflowPolicy the {@link EventOverflowPolicy} when the buffer is
+     *                       full
+     * @throws NullPointerException     if the subscriber or overflowPolicy is
+     *                                  null
+     * @throws IllegalArgumentException if the bufferCapacity is less than 1
+     * @throws IllegalStateException    if the cache is {@link #isClosed()}
+     * @see CacheEntryEventSubscriber
+     * @see javax.cache.event.BufferedCacheEntryEventSubscription
+     * @since 1.2
+     */
+    void subscribe(CacheEntryEventSubscriber<? super K, ? super V> subscriber,
+                   CacheEntryEventFilter<? super K, ? super V> filter,
+                   int bufferCapacity, EventOverflowPolicy overflowPolicy);
+
     /**
      * {@inheritDoc}
      * <p>
@@ -780,6 +942,42 @@ public interface Cache<K, V> extends Iterable<Cache.Entry<K, V>>, Closeable {
      */
     Iterator<Cache.Entry<K, V>> iterator();
 
+    /**
+     * Divides the entries of the cache into disjoint {@link CachePartition}s
+     * that may be iterated concurrently, so that scanning a large cache can be
+     * spread across threads.
+     * <p>
+     * Together the partitions contain the entries that {@link #iterator()}
+     * would return, each entry belonging to exactly one partition.  As with
+     * {@link #iterator()}, entries may be concurrently added, removed, evicted
+     * and expiring.  Implementations should divide the entries along their
+     * natural boundaries, such as segments, stripes or cluster members, and
+     * into partitions of similar size.
+     * <p>
+     * The requested number of partitions is a hint. Implementations may return
+     * fewer partitions, for example when the cache is small, or more
+     * partitions, for example when it is natural to partition by segment.
+     * At least one partition is always returned.
+     * <p>
+     * Applications using Java 8 or later may process the partitions as a
+     * parallel stream, for example:
+     * <pre><code>
+     * cache.partitions(ForkJoinPool.getCommonPoolParallelism())
+     *     .parallelStream()
+     *     .flatMap(partition -&gt; StreamSupport.stream(partition.spliterator(), false))
+     *     .forEach(entry -&gt; reconcile(entry.getKey(), entry.getValue()));
+     * </code></pre>
+     *
+     * @param parallelism the desired number of partitions, usually the number
+     *                    of threads that will iterate them
+     * @return the {@link CachePartition}s of the cache
+     * @throws IllegalArgumentException if parallelism is less than one
+     * @throws IllegalStateException    if the cache is {@link #isClosed()}
+     * @see #iterator()
+     * @since 1.2
+     */
+    Collection<CachePartition<K, V>> partitions(int parallelism);
+
     /**
      * A cache entry (key-value pair).
      */
@@ -0,0 +1,81 @@
+/**
+ * Copyright 2011-2016 Terracotta, Inc.
+ * Copyright 2011-2016 Oracle America Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.cache;
+
+import javax.cache.integration.CompletionListener;
+import java.util.concurrent.Future;
+
+/**
+ * A {@link Future} for the result of an asynchronous {@link Cache} operation,
+ * to which {@link CompletionListener}s may be added so that applications can
+ * continue processing once the operation completes, without having to block a
+ * thread waiting for the result.
+ * <p>
+ * For example:
+ * <pre><code>
+ * final CacheFuture&lt;Order&gt; future = asyncCache.getAsync(orderId);
+ *
+ * future.addCompletionListener(new CompletionListener() {
+ *   public void onCompletion() {
+ *     try {
+ *       //the result is available without blocking
+ *       Order order = future.get();
+ *       . . .
+ *     } catch (InterruptedException e) {
+ *       Thread.currentThread().interrupt();
+ *     } catch (ExecutionException e) {
+ *       //not thrown once the operation has completed successfully
+ *     }
+ *   }
+ *
+ *   public void onException(Exception e) {
+ *     . . .
+ *   }
+ * });
+ * </code></pre>
+ * <p>
+ * Once a {@link CacheFuture} has completed successfully, calls to
+ * {@link #get()} return the result immediately.
+ *
+ * @param <V> the type of the result
+ * @since 1.2
+ * @see AsyncCache
+ * @see javax.cache.integration.CompletableCacheFuture
+ */
+public interface CacheFuture<V> extends Future<V> {
+
+  /**
+   * Adds a {@link CompletionListener} to be notified when the operation
+   * completes.
+   * <p>
+   * When the operation completes successfully
+   * {@link CompletionListener#onCompletion()} is called, after which the result
+   * is available from {@link #get()}.  Should the operation fail
+   * {@link CompletionListener#onException(Exception)} is called with the cause
+   * of the failure.
+   * <p>
+   * If the operation has already completed, the {@link CompletionListener} is
+   * notified immediately using the calling thread.  Otherwise it is notified
+   * using the thread that completes the operation, which may be an
+   * implementation specific thread.  Consequently {@link CompletionListener}s
+   * should not block.
+   *
+   * @param listener the {@link CompletionListener} to notify
+   * @throws NullPointerException if the listener is null
+   */
+  void addCompletionListener(CompletionListener listener);
+}
@@ -0,0 +1,48 @@
+/**
+ * Copyright 2011-2016 Terracotta, Inc.
+ * Copyright 2011-2016 Oracle America Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.cache;
+
+/**
+ * A disjoint subset of the entries of a {@link Cache}, obtained using
+ * {@link Cache#partitions(int)}, that may be iterated independently of, and
+ * concurrently with, the other partitions of the {@link Cache}.
+ * <p>
+ * Iterating over a {@link CachePartition} has the same semantics as iterating
+ * over the {@link Cache} with {@link Cache#iterator()}, restricted to the
+ * entries of the partition.  A {@link CachePartition} may be iterated more
+ * than once, each iteration reflecting the entries of the partition at the
+ * time.
+ *
+ * @param <K> the type of key
+ * @param <V> the type of value
+ * @since 1.2
+ * @see Cache#partitions(int)
+ */
+public interface CachePartition<K, V> extends Iterable<Cache.Entry<K, V>> {
+
+  /**
+   * Estimates the number of entries in the partition, without iterating it,
+   * so that work may be balanced between threads.
+   * <p>
+   * The estimate may be inaccurate as the {@link Cache} is changing, but
+   * should be proportional to the cost of iterating the partition.
+   *
+   * @return the estimated number of entries, or a negative number if no
+   *         estimate can be made cheaply
+   */
+  long estimateSize();
+}
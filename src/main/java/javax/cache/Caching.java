@@ -17,12 +17,18 @@
 package javax.cache;
 
 import javax.cache.spi.CachingProvider;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.ServiceLoader;
-import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * The {@link Caching} class provides a convenient means for an application to
@@ -293,16 +299,29 @@ public final class Caching {
   /**
    * Maintains a registry of loaded {@link CachingProvider}s scoped by
    * {@link ClassLoader}.
+   * <p>
+   * Once the {@link CachingProvider}s for a {@link ClassLoader} have been
+   * loaded, looking them up does not acquire any locks, so that frequent calls
+   * such as {@link Caching#getCache(String, Class, Class)} do not contend.
+   * Loading {@link CachingProvider}s is serialized by the registry.
    */
   private static class CachingProviderRegistry {
 
     /**
      * The {@link CachingProvider}s by Class Name organized by the
-     * {@link ClassLoader} was used to load them.
+     * {@link ClassLoader} was used to load them.  The {@link ClassLoader}s are
+     * weakly referenced and the maps of {@link CachingProvider}s are immutable,
+     * being replaced when a {@link CachingProvider} is added.
      */
-    private WeakHashMap<ClassLoader, LinkedHashMap<String, CachingProvider>>
+    private final ConcurrentMap<ClassLoaderKey, Map<String, CachingProvider>>
         cachingProviders;
 
+    /**
+     * The queue of {@link WeakClassLoaderKey}s whose {@link ClassLoader}s have
+     * been garbage collected.
+     */
+    private final ReferenceQueue<ClassLoader> staleClassLoaders;
+
     /**
      * The default {@link ClassLoader}.  When <code>null</code> the
      * {@link Thread#getContextClassLoader()} will be used.
@@ -313,8 +332,9 @@ public final class Caching {
      * Constructs a CachingProviderManager.
      */
     public CachingProviderRegistry() {
-      this.cachingProviders = new WeakHashMap<ClassLoader, LinkedHashMap<String,
+      this.cachingProviders = new ConcurrentHashMap<ClassLoaderKey, Map<String,
           CachingProvider>>();
+      this.staleClassLoaders = new ReferenceQueue<ClassLoader>();
       this.classLoader = null;
     }
 
@@ -426,20 +446,61 @@ public final class Caching {
      * @return an {@link Iterable} of {@link CachingProvider}s loaded by the
      *         specified {@link ClassLoader}
      */
-    public synchronized Iterable<CachingProvider> getCachingProviders(ClassLoader classLoader) {
+    public Iterable<CachingProvider> getCachingProviders(ClassLoader classLoader) {
+      ClassLoader serviceClassLoader = getServiceClassLoader(classLoader);
+
+      return getCachingProviderMap(serviceClassLoader).values();
+    }
 
-      final ClassLoader serviceClassLoader = classLoader == null ? getDefaultClassLoader() : classLoader;
-      LinkedHashMap<String, CachingProvider> providers = cachingProviders.get(serviceClassLoader);
+    /**
+     * Obtain the {@link ClassLoader} with which to load {@link CachingProvider}s,
+     * using the {@link #getDefaultClassLoader()} when none is specified.
+     *
+     * @param classLoader the {@link ClassLoader}, may be null
+     * @return the {@link ClassLoader} to use, which is null should there be no
+     *         context {@link ClassLoader}
+     */
+    private ClassLoader getServiceClassLoader(ClassLoader classLoader) {
+      return classLoader == null ? getDefaultClassLoader() : classLoader;
+    }
+
+    /**
+     * Obtain the {@link CachingProvider}s by Class Name for the specified
+     * {@link ClassLoader}, loading them should they not already be registered.
+     *
+     * @param serviceClassLoader the {@link ClassLoader}
+     * @return the immutable {@link Map} of {@link CachingProvider}s
+     */
+    private Map<String, CachingProvider> getCachingProviderMap(ClassLoader serviceClassLoader) {
+      Map<String, CachingProvider> providers =
+          cachingProviders.get(new ClassLoaderLookupKey(serviceClassLoader));
+
+      return providers == null ? loadCachingProviders(serviceClassLoader) : providers;
+    }
+
+    /**
+     * Load and register the {@link CachingProvider}s for the specified
+     * {@link ClassLoader}, unless another thread has already done so.
+     *
+     * @param serviceClassLoader the {@link ClassLoader}
+     * @return the immutable {@link Map} of {@link CachingProvider}s
+     */
+    private synchronized Map<String, CachingProvider> loadCachingProviders(
+        final ClassLoader serviceClassLoader) {
+
+      Map<String, CachingProvider> providers =
+          cachingProviders.get(new ClassLoaderLookupKey(serviceClassLoader));
 
       if (providers == null) {
 
+        LinkedHashMap<String, CachingProvider> loaded;
         String className = System.getProperty(JAVAX_CACHE_CACHING_PROVIDER);
         if (className != null) {
-          providers = new LinkedHashMap<String, CachingProvider>();
-          providers.put(className, loadCachingProvider(className, serviceClassLoader));
+          loaded = new LinkedHashMap<String, CachingProvider>();
+          loaded.put(className, loadCachingProvider(className, serviceClassLoader));
 
         } else {
-          providers = AccessController.doPrivileged(new PrivilegedAction<LinkedHashMap<String, CachingProvider>>() {
+          loaded = AccessController.doPrivileged(new PrivilegedAction<LinkedHashMap<String, CachingProvider>>() {
             @Override
             public LinkedHashMap<String, CachingProvider> run() {
               LinkedHashMap<String, CachingProvider> result = new LinkedHashMap<String, CachingProvider>();
@@ -454,10 +515,26 @@ public final class Caching {
 
         }
 
-        cachingProviders.put(serviceClassLoader, providers);
+        expungeStaleClassLoaders();
+
+        providers = Collections.unmodifiableMap(loaded);
+        cachingProviders.put(new WeakClassLoaderKey(serviceClassLoader, staleClassLoaders), providers);
       }
 
-      return providers.values();
+      return providers;
+    }
+
+    /**
+     * Removes the {@link CachingProvider}s registered for {@link ClassLoader}s
+     * that have been garbage collected, called under lock.
+     */
+    private void expungeStaleClassLoaders() {
+      assert Thread.holdsLock(this);
+      Reference<? extends ClassLoader> reference = staleClassLoaders.poll();
+      while (reference != null) {
+        cachingProviders.remove(reference);
+        reference = staleClassLoaders.poll();
+      }
     }
 
     /**
@@ -490,17 +567,15 @@ public final class Caching {
      *                        CachingProvider}
      */
     protected CachingProvider loadCachingProvider(String fullyQualifiedClassName, ClassLoader classLoader) throws CacheException {
-      synchronized (classLoader) {
-        try {
-          Class<?> clazz = classLoader.loadClass(fullyQualifiedClassName);
-          if (CachingProvider.class.isAssignableFrom(clazz)) {
-            return ((Class<CachingProvider>) clazz).newInstance();
-          } else {
-            throw new CacheException("The specified class [" + fullyQualifiedClassName + "] is not a CachingProvider");
-          }
-        } catch (Exception e) {
-          throw new CacheException("Failed to load the CachingProvider [" + fullyQualifiedClassName + "]", e);
+      try {
+        Class<?> clazz = classLoader.loadClass(fullyQualifiedClassName);
+        if (CachingProvider.class.isAssignableFrom(clazz)) {
+          return ((Class<CachingProvider>) clazz).newInstance();
+        } else {
+          throw new CacheException("The specified class [" + fullyQualifiedClassName + "] is not a CachingProvider");
         }
+      } catch (Exception e) {
+        throw new CacheException("Failed to load the CachingProvider [" + fullyQualifiedClassName + "]", e);
       }
     }
 
@@ -518,26 +593,161 @@ public final class Caching {
      * @return the {@link CachingProvider}
      * @throws CacheException when the {@link CachingProvider} can't be created
      */
-    public synchronized CachingProvider getCachingProvider(String fullyQualifiedClassName, ClassLoader classLoader) {
-      ClassLoader serviceClassLoader = classLoader == null ? getDefaultClassLoader() : classLoader;
+    public CachingProvider getCachingProvider(String fullyQualifiedClassName, ClassLoader classLoader) {
+      ClassLoader serviceClassLoader = getServiceClassLoader(classLoader);
 
-      LinkedHashMap<String, CachingProvider> providers = cachingProviders.get(serviceClassLoader);
+      CachingProvider provider = getCachingProviderMap(serviceClassLoader).get(fullyQualifiedClassName);
 
-      if (providers == null) {
-        // first load the CachingProviders for the {@link ClassLoader}
-        // this may automatically load the CachingProvider we desire
-        getCachingProviders(serviceClassLoader);
-        providers = cachingProviders.get(serviceClassLoader);
-      }
+      return provider == null ? addCachingProvider(fullyQualifiedClassName, serviceClassLoader) : provider;
+    }
+
+    /**
+     * Load and register the {@link CachingProvider} with the specified fully
+     * qualified class name for the specified {@link ClassLoader}, unless another
+     * thread has already done so.
+     *
+     * @param fullyQualifiedClassName the fully qualified class name of the
+     *                                {@link CachingProvider}
+     * @param serviceClassLoader      the {@link ClassLoader}
+     * @return the {@link CachingProvider}
+     * @throws CacheException when the {@link CachingProvider} can't be created
+     */
+    private synchronized CachingProvider addCachingProvider(String fullyQualifiedClassName,
+                                                            ClassLoader serviceClassLoader) {
+      // first load the CachingProviders for the {@link ClassLoader}
+      // this may automatically load the CachingProvider we desire
+      Map<String, CachingProvider> providers = getCachingProviderMap(serviceClassLoader);
 
       CachingProvider provider = providers.get(fullyQualifiedClassName);
 
       if (provider == null) {
         provider = loadCachingProvider(fullyQualifiedClassName, serviceClassLoader);
-        providers.put(fullyQualifiedClassName, provider);
+
+        LinkedHashMap<String, CachingProvider> updated = new LinkedHashMap<String, CachingProvider>(providers);
+        updated.put(fullyQualifiedClassName, provider);
+        cachingProviders.replace(new ClassLoaderLookupKey(serviceClassLoader),
+            Collections.unmodifiableMap(updated));
       }
 
       return provider;
     }
   }
+
+  /**
+   * A key of the {@link CachingProviderRegistry}, identifying a
+   * {@link ClassLoader}, which may be <code>null</code>, by reference.
+   */
+  private interface ClassLoaderKey {
+
+    /**
+     * Obtains the {@link ClassLoader} identified by the key.
+     *
+     * @return the {@link ClassLoader}, or <code>null</code> if it is
+     *         <code>null</code> or has been garbage collected
+     */
+    ClassLoader getClassLoader();
+
+    /**
+     * Determines if the {@link ClassLoader} identified by the key has been
+     * garbage collected.
+     *
+     * @return <code>true</code> if the {@link ClassLoader} has been garbage
+     *         collected
+     */
+    boolean isCleared();
+  }
+
+  /**
+   * A {@link ClassLoaderKey} used to register {@link CachingProvider}s, which
+   * does not prevent the {@link ClassLoader} from being garbage collected.
+   */
+  private static final class WeakClassLoaderKey extends WeakReference<ClassLoader>
+      implements ClassLoaderKey {
+
+    private final int hashCode;
+
+    private final boolean isNullClassLoader;
+
+    /**
+     * Constructs a {@link WeakClassLoaderKey}.
+     *
+     * @param classLoader the {@link ClassLoader}
+     * @param queue       the queue to which the key is added once the
+     *                    {@link ClassLoader} has been garbage collected
+     */
+    WeakClassLoaderKey(ClassLoader classLoader, ReferenceQueue<ClassLoader> queue) {
+      super(classLoader, queue);
+      this.hashCode = System.identityHashCode(classLoader);
+      this.isNullClassLoader = classLoader == null;
+    }
+
+    @Override
+    public ClassLoader getClassLoader() {
+      return get();
+    }
+
+    @Override
+    public boolean isCleared() {
+      return !isNullClassLoader && get() == null;
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (this == other) {
+        return true;
+      } else if (other instanceof ClassLoaderKey) {
+        ClassLoaderKey otherKey = (ClassLoaderKey) other;
+        ClassLoader classLoader = get();
+        return !isCleared() && !otherKey.isCleared()
+            && classLoader == otherKey.getClassLoader();
+      } else {
+        return false;
+      }
+    }
+  }
+
+  /**
+   * A short-lived {@link ClassLoaderKey} used to look up registered
+   * {@link CachingProvider}s.
+   */
+  private static final class ClassLoaderLookupKey implements ClassLoaderKey {
+
+    private final ClassLoader classLoader;
+
+    /**
+     * Constructs a {@link ClassLoaderLookupKey}.
+     *
+     * @param classLoader the {@link ClassLoader}
+     */
+    ClassLoaderLookupKey(ClassLoader classLoader) {
+      this.classLoader = classLoader;
+    }
+
+    @Override
+    public ClassLoader getClassLoader() {
+      return classLoader;
+    }
+
+    @Override
+    public boolean isCleared() {
+      return false;
+    }
+
+    @Override
+    public int hashCode() {
+      return System.identityHashCode(classLoader);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof ClassLoaderKey
+          && !((ClassLoaderKey) other).isCleared()
+          && classLoader == ((ClassLoaderKey) other).getClassLoader();
+    }
+  }
 }
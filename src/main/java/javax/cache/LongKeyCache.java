@@ -0,0 +1,133 @@
+/**
+ * Copyright 2011-2016 Terracotta, Inc.
+ * Copyright 2011-2016 Oracle America Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.cache;
+
+import javax.cache.configuration.OptionalFeature;
+import javax.cache.integration.CacheLoader;
+import javax.cache.integration.CacheWriter;
+import java.util.List;
+
+/**
+ * A view of a {@link Cache} with {@link Long} keys whose operations accept
+ * primitive <code>long</code> keys, so that implementations storing primitive
+ * keys natively need not box a key, or allocate a {@link java.util.Set} of
+ * keys, for each operation.
+ * <p>
+ * Each operation has the same semantics as the corresponding {@link Cache}
+ * operation with the boxed key, including read-through, write-through, expiry,
+ * event and statistics behavior.  Keys provided to {@link CacheLoader}s,
+ * {@link CacheWriter}s and listeners are {@link Long}s.
+ * <p>
+ * A {@link LongKeyCache} is obtained from a {@link Cache} configured with a key type of
+ * {@link Long} using {@link Cache#unwrap(Class)}, when the implementation
+ * supports {@link OptionalFeature#PRIMITIVE_KEYS}.  Otherwise an
+ * {@link IllegalArgumentException} is thrown.
+ * <pre><code>
+ * if (cachingProvider.isSupported(OptionalFeature.PRIMITIVE_KEYS)) {
+ *   LongKeyCache&lt;Customer&gt; customers = cache.unwrap(LongKeyCache.class);
+ *   Customer customer = customers.get(customerId);
+ *   . . .
+ * }
+ * </code></pre>
+ *
+ * @param <V> the type of value
+ * @since 1.2
+ * @see OptionalFeature#PRIMITIVE_KEYS
+ */
+public interface LongKeyCache<V> {
+
+  /**
+   * Gets an entry from the cache.
+   *
+   * @param key the key whose associated value is to be returned
+   * @return the element, or null, if it does not exist.
+   * @throws IllegalStateException if the cache is {@link Cache#isClosed()}
+   * @throws CacheException        if there is a problem fetching the value
+   * @see Cache#get(Object)
+   */
+  V get(long key);
+
+  /**
+   * Gets a collection of entries from the cache, returning their values in
+   * the same order as the specified keys.
+   *
+   * @param keys the keys whose associated values are to be returned
+   * @return a {@link List} with the value for each of the keys, in the same
+   *         order as the keys, containing <code>null</code> for keys that were
+   *         not found
+   * @throws NullPointerException  if keys is null
+   * @throws IllegalStateException if the cache is {@link Cache#isClosed()}
+   * @throws CacheException        if there is a problem fetching the values
+   * @see Cache#getAll(java.util.Set)
+   */
+  List<V> getAll(long[] keys);
+
+  /**
+   * Determines if the cache contains an entry for the specified key.
+   *
+   * @param key key whose presence in this cache is to be tested.
+   * @return <tt>true</tt> if this cache contains a mapping for the specified key
+   * @throws IllegalStateException if the cache is {@link Cache#isClosed()}
+   * @throws CacheException        it there is a problem checking the mapping
+   * @see Cache#containsKey(Object)
+   */
+  boolean containsKey(long key);
+
+  /**
+   * Associates the specified value with the specified key in the cache.
+   *
+   * @param key   key with which the specified value is to be associated
+   * @param value value to be associated with the specified key
+   * @throws NullPointerException  if value is null
+   * @throws IllegalStateException if the cache is {@link Cache#isClosed()}
+   * @throws CacheException        if there is a problem doing the put
+   * @see Cache#put(Object, Object)
+   */
+  void put(long key, V value);
+
+  /**
+   * Atomically associates the specified key with the given value if it is
+   * not already associated with a value.
+   *
+   * @param key   key with which the specified value is to be associated
+   * @param value value to be associated with the specified key
+   * @return true if a value was set.
+   * @throws NullPointerException  if value is null
+   * @throws IllegalStateException if the cache is {@link Cache#isClosed()}
+   * @throws CacheException        if there is a problem doing the put
+   * @see Cache#putIfAbsent(Object, Object)
+   */
+  boolean putIfAbsent(long key, V value);
+
+  /**
+   * Removes the mapping for a key from this cache if it is present.
+   *
+   * @param key key whose mapping is to be removed from the cache
+   * @return returns false if there was no matching key
+   * @throws IllegalStateException if the cache is {@link Cache#isClosed()}
+   * @throws CacheException        if there is a problem doing the remove
+   * @see Cache#remove(Object)
+   */
+  boolean remove(long key);
+
+  /**
+   * Obtains the {@link Cache} of which this is a view.
+   *
+   * @return the {@link Cache}
+   */
+  Cache<Long, V> getCache();
+}
@@ -72,4 +72,43 @@ public interface CacheEntryListenerConfiguration<K, V> extends Serializable {
    * @return <code>true</code> if the thread that created the event should block
    */
   boolean isSynchronous();
+
+  /**
+   * Determines the number of threads that may concurrently notify an
+   * asynchronous {@link CacheEntryListener}.
+   * <p>
+   * When greater than <code>1</code>, events are partitioned by the hash code
+   * of their key, so that the events for a key are notified in order by the
+   * same thread while events for different keys are notified in parallel.
+   * The {@link CacheEntryListener} must then be thread-safe.  The delivery
+   * parallelism is ignored for synchronous listeners.
+   * <p>
+   * The default value is <code>1</code>, notifying all events in order.
+   *
+   * @return the number of threads that may notify the
+   *         {@link CacheEntryListener}
+   * @since 1.2
+   * @see javax.cache.event.CacheEntryEventDispatcher
+   */
+  int getDeliveryParallelism();
+
+  /**
+   * Determines if undelivered events for the same key may be coalesced before
+   * an asynchronous {@link CacheEntryListener} is notified.
+   * <p>
+   * When <code>true</code>, an event for a key that has an event waiting to be
+   * notified is merged into the waiting event, which then carries the first
+   * old value and the last value, and the {@link javax.cache.event.EventType}
+   * describing their net effect.  An entry created and then removed before
+   * notification produces no event.  This suits listeners that only require
+   * the latest state of each entry, such as invalidation listeners.
+   * Coalescing is ignored for synchronous listeners.
+   * <p>
+   * The default value is <code>false</code>, notifying every event.
+   *
+   * @return <code>true</code> if events may be coalesced
+   * @since 1.2
+   * @see javax.cache.event.CacheEntryEventDispatcher
+   */
+  boolean isCoalescing();
 }
@@ -16,9 +16,15 @@
  */
 package javax.cache.configuration;
 
+import javax.cache.eviction.EvictionAlgorithm;
+import javax.cache.eviction.Weigher;
+import javax.cache.expiry.CacheClock;
+import javax.cache.expiry.Duration;
 import javax.cache.expiry.ExpiryPolicy;
 import javax.cache.integration.CacheLoader;
 import javax.cache.integration.CacheWriter;
+import javax.cache.serialization.Copier;
+import javax.cache.serialization.Serializer;
 import java.io.Serializable;
 
 /**
@@ -59,6 +65,99 @@ public interface CompleteConfiguration<K, V> extends Configuration<K, V>,
    */
   boolean isReadThrough();
 
+  /**
+   * Gets the fraction of an entry's expiry {@link javax.cache.expiry.Duration}
+   * after which a "read-through" {@link javax.cache.Cache} refreshes the entry
+   * ahead of its expiry.
+   * <p>
+   * When an entry is accessed after this fraction of the
+   * {@link javax.cache.expiry.Duration} it was last given by the
+   * {@link javax.cache.expiry.ExpiryPolicy} has elapsed, the current value is
+   * returned immediately and the entry is reloaded in the background using the
+   * configured {@link javax.cache.integration.CacheLoader}, as if by
+   * {@link javax.cache.Cache#loadAll(java.util.Set, boolean,
+   * javax.cache.integration.CompletionListener)} with
+   * <code>replaceExistingValues</code> set to <code>true</code>.  At most one
+   * refresh is in progress for a key at any time.  Should the
+   * {@link javax.cache.integration.CacheLoader} fail or return
+   * <code>null</code>, the entry is left unchanged and expires as it would
+   * have without refreshing.
+   * <p>
+   * For example, with a factor of <code>0.8</code> and a one hour expiry, an
+   * entry accessed 48 minutes or more after it was loaded is refreshed, so that
+   * frequently accessed entries never expire and readers never wait for the
+   * {@link javax.cache.integration.CacheLoader}.  Entries that are not accessed
+   * after the refresh point still expire.
+   * <p>
+   * Refresh-ahead only applies when {@link #isReadThrough()} is
+   * <code>true</code> and the entry does not have an eternal
+   * {@link javax.cache.expiry.Duration}.
+   * <p>
+   * The default value is <code>0</code>, meaning entries are not refreshed
+   * ahead of expiry.
+   *
+   * @return the refresh-ahead factor, between <code>0</code> (inclusive) and
+   * <code>1</code> (exclusive)
+   * @since 1.2
+   */
+  double getRefreshAheadFactor();
+
+  /**
+   * Gets the {@link Duration} after an entry expires during which a
+   * "read-through" {@link javax.cache.Cache} may continue to return the expired
+   * value while the entry is reloaded in the background.
+   * <p>
+   * When an entry is read through {@link javax.cache.Cache#get(Object)},
+   * {@link javax.cache.Cache#getAll(java.util.Set)} or
+   * {@link javax.cache.Cache#getOrLoad(Object, java.util.concurrent.Callable)}
+   * within this {@link Duration} of its expiry, the expired value is returned
+   * immediately and the entry is reloaded using the configured
+   * {@link javax.cache.integration.CacheLoader}, with at most one reload in
+   * progress for a key at any time.  For all other purposes, such as
+   * {@link javax.cache.Cache#containsKey(Object)} and iteration, the entry is
+   * expired.  Once the {@link Duration} has elapsed the entry is loaded as if it
+   * was not present.
+   * <p>
+   * Stale-while-revalidate only applies when {@link #isReadThrough()} is
+   * <code>true</code>.
+   * <p>
+   * The default value is {@link Duration#ZERO}, meaning expired values are not
+   * returned.
+   *
+   * @return the stale-while-revalidate {@link Duration} (must not be
+   * <code>null</code>)
+   * @since 1.2
+   * @see #getStaleIfErrorDuration()
+   */
+  Duration getStaleWhileRevalidateDuration();
+
+  /**
+   * Gets the {@link Duration} after an entry expires during which a
+   * "read-through" {@link javax.cache.Cache} returns the expired value should
+   * reloading the entry fail.
+   * <p>
+   * When the {@link javax.cache.integration.CacheLoader} throws a
+   * {@link javax.cache.integration.CacheLoaderException} while loading an
+   * entry that expired within this {@link Duration}, the expired value is
+   * returned instead of propagating the exception, and is retained so that
+   * subsequent reads may retry the load.  Failures of background reloads, for
+   * example by stale-while-revalidate or refresh-ahead, likewise leave the
+   * expired value in place.  Once the {@link Duration} has elapsed, failures
+   * propagate as they would without a grace period.
+   * <p>
+   * Stale-if-error only applies when {@link #isReadThrough()} is
+   * <code>true</code>.
+   * <p>
+   * The default value is {@link Duration#ZERO}, meaning loader failures always
+   * propagate.
+   *
+   * @return the stale-if-error {@link Duration} (must not be
+   * <code>null</code>)
+   * @since 1.2
+   * @see #getStaleWhileRevalidateDuration()
+   */
+  Duration getStaleIfErrorDuration();
+
   /**
    * Determines if a {@link javax.cache.Cache} should operate in write-through
    * mode.
@@ -77,6 +176,10 @@ public interface CompleteConfiguration<K, V> extends Configuration<K, V>,
    * javax.cache.processor.EntryProcessor, Object...)} will appropriately cause
    * the configured {@link javax.cache.integration.CacheWriter} to be invoked.
    * <p>
+   * "Write-behind" caching, where mutations are applied to the external
+   * resource asynchronously and in batches, is achieved by configuring a
+   * {@link javax.cache.integration.WriteBehindCacheWriter}.
+   * <p>
    * The default value is <code>false</code>.
    *
    * @return <code>true</code> when a {@link javax.cache.Cache} is in
@@ -153,4 +256,166 @@ public interface CompleteConfiguration<K, V> extends Configuration<K, V>,
    */
   Factory<ExpiryPolicy> getExpiryPolicyFactory();
 
+  /**
+   * Gets the {@link javax.cache.configuration.Factory} for the
+   * {@link CacheClock} from which a {@link javax.cache.Cache} obtains the
+   * current time, to calculate expiry times and to measure statistics.
+   * <p>
+   * The default value is a {@link javax.cache.configuration.Factory} that will
+   * produce a {@link javax.cache.expiry.SystemCacheClock} instance.
+   *
+   * @return the {@link javax.cache.configuration.Factory} for
+   * {@link CacheClock} (must not be <code>null</code>)
+   * @since 1.2
+   */
+  Factory<CacheClock> getCacheClockFactory();
+
+  /**
+   * Gets the maximum number of entries a {@link javax.cache.Cache} may hold.
+   * <p>
+   * When the number of entries exceeds the maximum, entries are evicted using
+   * the {@link #getEvictionAlgorithm()} until the cache is within bounds.
+   * Evictions do not cause the {@link javax.cache.integration.CacheWriter} or
+   * {@link javax.cache.event.CacheEntryRemovedListener}s to be invoked.
+   * <p>
+   * The default value is {@link Long#MAX_VALUE}, meaning the number of entries
+   * is not bounded.
+   *
+   * @return the maximum number of entries
+   * @since 1.2
+   */
+  long getMaximumEntries();
+
+  /**
+   * Gets the maximum total weight of the entries a {@link javax.cache.Cache}
+   * may hold, where the weight of each entry is determined by the
+   * {@link Weigher} produced by the {@link #getWeigherFactory()}.
+   * <p>
+   * When the total weight exceeds the maximum, entries are evicted using the
+   * {@link #getEvictionAlgorithm()} until the cache is within bounds.  A cache
+   * may be bounded by both the number of entries and the total weight.
+   * <p>
+   * The default value is {@link Long#MAX_VALUE}, meaning the total weight is not
+   * bounded.
+   *
+   * @return the maximum total weight
+   * @since 1.2
+   * @see #getWeigherFactory()
+   */
+  long getMaximumWeight();
+
+  /**
+   * Gets the {@link javax.cache.configuration.Factory} for the {@link Weigher}
+   * used to determine the weight of entries, if any.
+   * <p>
+   * A {@link Weigher} must be configured when a {@link #getMaximumWeight()} is
+   * specified.
+   * <p>
+   * The default value is <code>null</code>.
+   *
+   * @return the {@link javax.cache.configuration.Factory} for the
+   * {@link Weigher} or null if none has been set.
+   * @since 1.2
+   */
+  Factory<Weigher<? super K, ? super V>> getWeigherFactory();
+
+  /**
+   * Gets the {@link EvictionAlgorithm} used to select entries for eviction
+   * when a bounded {@link javax.cache.Cache} exceeds its capacity.
+   * <p>
+   * The default value is <code>null</code>, meaning the implementation chooses
+   * the algorithm.
+   *
+   * @return the {@link EvictionAlgorithm} or null if the implementation chooses
+   * @since 1.2
+   */
+  EvictionAlgorithm getEvictionAlgorithm();
+
+  /**
+   * Gets the number of bytes of storage outside of the Java heap that a
+   * {@link javax.cache.Cache} may use to hold entries.
+   * <p>
+   * Holding entries off-heap reduces the work of the garbage collector for
+   * large caches, at the cost of serializing values as they are stored and
+   * deserializing them as they are accessed, using the {@link Serializer}s
+   * produced by {@link #getKeySerializerFactory()} and
+   * {@link #getValueSerializerFactory()}.  Implementations decide which entries
+   * are held off-heap, for example holding the most recently used entries on
+   * the heap and the remainder off-heap, subject to any
+   * {@link #getMaximumEntries()} and {@link #getMaximumWeight()} bounds.
+   * Off-heap storage implies store-by-value semantics.
+   * <p>
+   * Off-heap storage is an optional feature.  Creating a
+   * {@link javax.cache.Cache} with a non-zero off-heap size when
+   * {@link OptionalFeature#OFF_HEAP_STORAGE} is not supported throws an
+   * {@link UnsupportedOperationException}.
+   * <p>
+   * The default value is <code>0</code>, meaning entries are held on the heap.
+   *
+   * @return the number of bytes of off-heap storage
+   * @since 1.2
+   */
+  long getOffHeapSize();
+
+  /**
+   * Gets the {@link javax.cache.configuration.Factory} for the
+   * {@link Serializer} of keys, if any.
+   * <p>
+   * The default value is <code>null</code>, meaning the implementation chooses
+   * how to serialize keys when required.
+   *
+   * @return the {@link javax.cache.configuration.Factory} for the key
+   * {@link Serializer} or null if none has been set.
+   * @since 1.2
+   * @see #getOffHeapSize()
+   */
+  Factory<Serializer<K>> getKeySerializerFactory();
+
+  /**
+   * Gets the {@link javax.cache.configuration.Factory} for the
+   * {@link Serializer} of values, if any.
+   * <p>
+   * The default value is <code>null</code>, meaning the implementation chooses
+   * how to serialize values when required.
+   *
+   * @return the {@link javax.cache.configuration.Factory} for the value
+   * {@link Serializer} or null if none has been set.
+   * @since 1.2
+   * @see #getOffHeapSize()
+   */
+  Factory<Serializer<V>> getValueSerializerFactory();
+
+  /**
+   * Gets the {@link javax.cache.configuration.Factory} for the {@link Copier}
+   * used to copy keys when {@link #isStoreByValue()} is <code>true</code>, if
+   * any.
+   * <p>
+   * The default value is <code>null</code>, meaning the implementation chooses
+   * how to copy keys, commonly using Java serialization.
+   *
+   * @return the {@link javax.cache.configuration.Factory} for the key
+   * {@link Copier} or null if none has been set.
+   * @since 1.2
+   * @see javax.cache.serialization.IdentityCopier
+   * @see javax.cache.serialization.SerializingCopier
+   */
+  Factory<Copier<K>> getKeyCopierFactory();
+
+  /**
+   * Gets the {@link javax.cache.configuration.Factory} for the {@link Copier}
+   * used to copy values when {@link #isStoreByValue()} is <code>true</code>, if
+   * any.
+   * <p>
+   * The default value is <code>null</code>, meaning the implementation chooses
+   * how to copy values, commonly using Java serialization.
+   *
+   * @return the {@link javax.cache.configuration.Factory} for the value
+   * {@link Copier} or null if none has been set.
+   * @since 1.2
+   * @see javax.cache.serialization.IdentityCopier
+   * @see javax.cache.serialization.SerializingCopier
+   * @see javax.cache.serialization.ByteArrayCopier
+   */
+  Factory<Copier<V>> getValueCopierFactory();
+
 }
@@ -18,6 +18,8 @@ package javax.cache.configuration;
 
 import javax.cache.event.CacheEntryEventFilter;
 import javax.cache.event.CacheEntryListener;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 
 /**
  * A convenience class providing a mutable, serializable implementation of a
@@ -58,6 +60,18 @@ public class MutableCacheEntryListenerConfiguration<K, V>
    */
   private boolean isSynchronous;
 
+  /**
+   * The number of threads that may concurrently notify an asynchronous
+   * {@link CacheEntryListener}.
+   */
+  private int deliveryParallelism;
+
+  /**
+   * Should undelivered events for the same key be coalesced before an
+   * asynchronous {@link CacheEntryListener} is notified?
+   */
+  private boolean isCoalescing;
+
   /**
    * Constructs a {@link MutableCacheEntryListenerConfiguration} based on
    * another {@link CacheEntryListenerConfiguration}.
@@ -69,6 +83,8 @@ public class MutableCacheEntryListenerConfiguration<K, V>
     this.filterFactory = configuration.getCacheEntryEventFilterFactory();
     this.isOldValueRequired = configuration.isOldValueRequired();
     this.isSynchronous = configuration.isSynchronous();
+    this.deliveryParallelism = configuration.getDeliveryParallelism();
+    this.isCoalescing = configuration.isCoalescing();
   }
 
   /**
@@ -88,6 +104,8 @@ public class MutableCacheEntryListenerConfiguration<K, V>
     this.filterFactory = (Factory<CacheEntryEventFilter<? super K, ? super V>>) filterFactory;
     this.isOldValueRequired = isOldValueRequired;
     this.isSynchronous = isSynchronous;
+    this.deliveryParallelism = 1;
+    this.isCoalescing = false;
   }
 
   /**
@@ -177,6 +195,75 @@ public class MutableCacheEntryListenerConfiguration<K, V>
     return this;
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int getDeliveryParallelism() {
+    return deliveryParallelism;
+  }
+
+  /**
+   * Sets the number of threads that may concurrently notify an asynchronous
+   * {@link CacheEntryListener}, preserving the order of the events for each
+   * key.  Values greater than <code>1</code> require a thread-safe
+   * {@link CacheEntryListener}.
+   *
+   * @param deliveryParallelism the number of threads
+   * @return the {@link MutableCacheEntryListenerConfiguration} to permit
+   *         fluent-style method calls
+   * @throws IllegalArgumentException if the deliveryParallelism is less than 1
+   */
+  public MutableCacheEntryListenerConfiguration<K, V> setDeliveryParallelism(
+      int deliveryParallelism) {
+    if (deliveryParallelism < 1) {
+      throw new IllegalArgumentException("deliveryParallelism must be at least 1");
+    }
+    this.deliveryParallelism = deliveryParallelism;
+    return this;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean isCoalescing() {
+    return isCoalescing;
+  }
+
+  /**
+   * Sets if undelivered events for the same key should be coalesced into a
+   * single event, with the first old value and the last value, before an
+   * asynchronous {@link CacheEntryListener} is notified.
+   *
+   * @param isCoalescing <code>true</code> to coalesce events
+   * @return the {@link MutableCacheEntryListenerConfiguration} to permit
+   *         fluent-style method calls
+   */
+  public MutableCacheEntryListenerConfiguration<K, V> setCoalescing(
+      boolean isCoalescing) {
+    this.isCoalescing = isCoalescing;
+    return this;
+  }
+
+  /**
+   * Reconstitutes a {@link MutableCacheEntryListenerConfiguration}.
+   * <p>
+   * Configurations serialized by earlier versions of this class lack the
+   * delivery parallelism, which is then given its default of one.
+   *
+   * @param in the {@link ObjectInputStream} from which to read the
+   *           configuration
+   * @throws IOException            if the configuration could not be read
+   * @throws ClassNotFoundException if a class of the configuration is not
+   *                                found
+   */
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    if (deliveryParallelism < 1) {
+      deliveryParallelism = 1;
+    }
+  }
 
   /**
    * {@inheritDoc}
@@ -188,6 +275,8 @@ public class MutableCacheEntryListenerConfiguration<K, V>
     result = prime * result + ((filterFactory == null) ? 0 : filterFactory.hashCode());
     result = prime * result + (isOldValueRequired ? 1231 : 1237);
     result = prime * result + (isSynchronous ? 1231 : 1237);
+    result = prime * result + deliveryParallelism;
+    result = prime * result + (isCoalescing ? 1231 : 1237);
     result = prime * result
         + ((listenerFactory == null) ? 0 : listenerFactory.hashCode());
     return result;
@@ -221,6 +310,12 @@ public class MutableCacheEntryListenerConfiguration<K, V>
     if (isSynchronous != other.isSynchronous) {
       return false;
     }
+    if (deliveryParallelism != other.deliveryParallelism) {
+      return false;
+    }
+    if (isCoalescing != other.isCoalescing) {
+      return false;
+    }
     if (listenerFactory == null) {
       if (other.listenerFactory != null) {
         return false;
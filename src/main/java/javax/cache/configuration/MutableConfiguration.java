@@ -19,10 +19,19 @@ package javax.cache.configuration;
 import javax.cache.Cache;
 import javax.cache.CacheManager;
 import javax.cache.event.CacheEntryListener;
+import javax.cache.eviction.EvictionAlgorithm;
+import javax.cache.eviction.Weigher;
+import javax.cache.expiry.CacheClock;
+import javax.cache.expiry.Duration;
 import javax.cache.expiry.EternalExpiryPolicy;
 import javax.cache.expiry.ExpiryPolicy;
+import javax.cache.expiry.SystemCacheClock;
 import javax.cache.integration.CacheLoader;
 import javax.cache.integration.CacheWriter;
+import javax.cache.serialization.Copier;
+import javax.cache.serialization.Serializer;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.util.HashSet;
 
 /**
@@ -74,11 +83,33 @@ public class MutableConfiguration<K, V> implements CompleteConfiguration<K, V> {
    */
   protected Factory<ExpiryPolicy> expiryPolicyFactory;
 
+  /**
+   * The {@link Factory} for the {@link CacheClock}.
+   */
+  protected Factory<CacheClock> cacheClockFactory;
+
   /**
    * A flag indicating if "read-through" mode is required.
    */
   protected boolean isReadThrough;
 
+  /**
+   * The fraction of the expiry duration after which entries are refreshed.
+   */
+  protected double refreshAheadFactor;
+
+  /**
+   * The {@link Duration} after expiry during which expired values are returned
+   * while being reloaded.
+   */
+  protected Duration staleWhileRevalidateDuration;
+
+  /**
+   * The {@link Duration} after expiry during which expired values are returned
+   * should reloading fail.
+   */
+  protected Duration staleIfErrorDuration;
+
   /**
    * A flag indicating if "write-through" mode is required.
    */
@@ -99,6 +130,51 @@ public class MutableConfiguration<K, V> implements CompleteConfiguration<K, V> {
    */
   protected boolean isManagementEnabled;
 
+  /**
+   * The maximum number of entries.
+   */
+  protected long maximumEntries;
+
+  /**
+   * The maximum total weight of entries.
+   */
+  protected long maximumWeight;
+
+  /**
+   * The {@link Factory} for the {@link Weigher}.
+   */
+  protected Factory<Weigher<? super K, ? super V>> weigherFactory;
+
+  /**
+   * The {@link EvictionAlgorithm}, or null if the implementation chooses.
+   */
+  protected EvictionAlgorithm evictionAlgorithm;
+
+  /**
+   * The number of bytes of off-heap storage.
+   */
+  protected long offHeapSize;
+
+  /**
+   * The {@link Factory} for the key {@link Serializer}.
+   */
+  protected Factory<Serializer<K>> keySerializerFactory;
+
+  /**
+   * The {@link Factory} for the value {@link Serializer}.
+   */
+  protected Factory<Serializer<V>> valueSerializerFactory;
+
+  /**
+   * The {@link Factory} for the key {@link Copier}.
+   */
+  protected Factory<Copier<K>> keyCopierFactory;
+
+  /**
+   * The {@link Factory} for the value {@link Copier}.
+   */
+  protected Factory<Copier<V>> valueCopierFactory;
+
   /**
    * Default JavaBean constructor.
    * <p>
@@ -129,11 +205,24 @@ public class MutableConfiguration<K, V> implements CompleteConfiguration<K, V> {
     this.cacheLoaderFactory = null;
     this.cacheWriterFactory = null;
     this.expiryPolicyFactory = EternalExpiryPolicy.factoryOf();
+    this.cacheClockFactory = SystemCacheClock.factoryOf();
     this.isReadThrough = false;
+    this.refreshAheadFactor = 0;
+    this.staleWhileRevalidateDuration = Duration.ZERO;
+    this.staleIfErrorDuration = Duration.ZERO;
     this.isWriteThrough = false;
     this.isStatisticsEnabled = false;
     this.isStoreByValue = true;
     this.isManagementEnabled = false;
+    this.maximumEntries = Long.MAX_VALUE;
+    this.maximumWeight = Long.MAX_VALUE;
+    this.weigherFactory = null;
+    this.evictionAlgorithm = null;
+    this.offHeapSize = 0;
+    this.keySerializerFactory = null;
+    this.valueSerializerFactory = null;
+    this.keyCopierFactory = null;
+    this.valueCopierFactory = null;
   }
 
   /**
@@ -163,7 +252,25 @@ public class MutableConfiguration<K, V> implements CompleteConfiguration<K, V> {
       this.expiryPolicyFactory = configuration.getExpiryPolicyFactory();
     }
 
+    if (configuration.getCacheClockFactory() == null) {
+      this.cacheClockFactory = SystemCacheClock.factoryOf();
+    } else {
+      this.cacheClockFactory = configuration.getCacheClockFactory();
+    }
+
     this.isReadThrough = configuration.isReadThrough();
+    this.refreshAheadFactor = configuration.getRefreshAheadFactor();
+
+    if (configuration.getStaleWhileRevalidateDuration() == null) {
+      this.staleWhileRevalidateDuration = Duration.ZERO;
+    } else {
+      this.staleWhileRevalidateDuration = configuration.getStaleWhileRevalidateDuration();
+    }
+    if (configuration.getStaleIfErrorDuration() == null) {
+      this.staleIfErrorDuration = Duration.ZERO;
+    } else {
+      this.staleIfErrorDuration = configuration.getStaleIfErrorDuration();
+    }
     this.isWriteThrough = configuration.isWriteThrough();
 
     this.isStatisticsEnabled = configuration.isStatisticsEnabled();
@@ -171,6 +278,18 @@ public class MutableConfiguration<K, V> implements CompleteConfiguration<K, V> {
     this.isStoreByValue = configuration.isStoreByValue();
 
     this.isManagementEnabled = configuration.isManagementEnabled();
+
+    this.maximumEntries = configuration.getMaximumEntries();
+    this.maximumWeight = configuration.getMaximumWeight();
+    this.weigherFactory = configuration.getWeigherFactory();
+    this.evictionAlgorithm = configuration.getEvictionAlgorithm();
+
+    this.offHeapSize = configuration.getOffHeapSize();
+    this.keySerializerFactory = configuration.getKeySerializerFactory();
+    this.valueSerializerFactory = configuration.getValueSerializerFactory();
+
+    this.keyCopierFactory = configuration.getKeyCopierFactory();
+    this.valueCopierFactory = configuration.getValueCopierFactory();
   }
 
   /**
@@ -343,6 +462,34 @@ public class MutableConfiguration<K, V> implements CompleteConfiguration<K, V> {
     return this;
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Factory<CacheClock> getCacheClockFactory() {
+    return this.cacheClockFactory;
+  }
+
+  /**
+   * Set the {@link Factory} for the {@link CacheClock}.  If <code>null</code>
+   * is specified the default {@link CacheClock}, which reads the system clock,
+   * is used.
+   *
+   * @param factory the {@link CacheClock} {@link Factory}
+   * @return the {@link MutableConfiguration} to permit fluent-style method calls
+   * @see javax.cache.expiry.MonotonicCacheClock
+   * @see javax.cache.expiry.CoarseCacheClock
+   */
+  public MutableConfiguration<K, V> setCacheClockFactory(Factory<? extends
+      CacheClock> factory) {
+    if (factory == null) {
+      this.cacheClockFactory = SystemCacheClock.factoryOf();
+    } else {
+      this.cacheClockFactory = (Factory<CacheClock>) factory;
+    }
+    return this;
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -365,6 +512,95 @@ public class MutableConfiguration<K, V> implements CompleteConfiguration<K, V> {
     return this;
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public double getRefreshAheadFactor() {
+    return this.refreshAheadFactor;
+  }
+
+  /**
+   * Set the fraction of an entry's expiry duration after which a read-through
+   * cache refreshes the entry in the background when it is accessed.
+   * <p>
+   * Refresh-ahead requires read-through caching to be enabled.
+   *
+   * @param refreshAheadFactor the fraction of the expiry duration, or
+   *                           <code>0</code> to disable refresh-ahead
+   * @return the {@link MutableConfiguration} to permit fluent-style method calls
+   * @throws IllegalArgumentException if the factor is not between
+   *                                  <code>0</code> (inclusive) and
+   *                                  <code>1</code> (exclusive)
+   * @see #setReadThrough(boolean)
+   */
+  public MutableConfiguration<K, V> setRefreshAheadFactor(double refreshAheadFactor) {
+    if (!(refreshAheadFactor >= 0 && refreshAheadFactor < 1)) {
+      throw new IllegalArgumentException("refreshAheadFactor must be at least 0 " +
+          "and less than 1");
+    }
+    this.refreshAheadFactor = refreshAheadFactor;
+    return this;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Duration getStaleWhileRevalidateDuration() {
+    return this.staleWhileRevalidateDuration;
+  }
+
+  /**
+   * Set the {@link Duration} after an entry expires during which a read-through
+   * cache returns the expired value while reloading the entry in the
+   * background.  If <code>null</code> is specified {@link Duration#ZERO} is
+   * used, and expired values are not returned.
+   * <p>
+   * Stale-while-revalidate requires read-through caching to be enabled.
+   *
+   * @param duration the stale-while-revalidate {@link Duration}
+   * @return the {@link MutableConfiguration} to permit fluent-style method calls
+   * @see #setReadThrough(boolean)
+   */
+  public MutableConfiguration<K, V> setStaleWhileRevalidateDuration(Duration duration) {
+    if (duration == null) {
+      this.staleWhileRevalidateDuration = Duration.ZERO;
+    } else {
+      this.staleWhileRevalidateDuration = duration;
+    }
+    return this;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Duration getStaleIfErrorDuration() {
+    return this.staleIfErrorDuration;
+  }
+
+  /**
+   * Set the {@link Duration} after an entry expires during which a read-through
+   * cache returns the expired value should the {@link CacheLoader} fail to
+   * reload it.  If <code>null</code> is specified {@link Duration#ZERO} is
+   * used, and loader failures always propagate.
+   * <p>
+   * Stale-if-error requires read-through caching to be enabled.
+   *
+   * @param duration the stale-if-error {@link Duration}
+   * @return the {@link MutableConfiguration} to permit fluent-style method calls
+   * @see #setReadThrough(boolean)
+   */
+  public MutableConfiguration<K, V> setStaleIfErrorDuration(Duration duration) {
+    if (duration == null) {
+      this.staleIfErrorDuration = Duration.ZERO;
+    } else {
+      this.staleIfErrorDuration = duration;
+    }
+    return this;
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -408,6 +644,48 @@ public class MutableConfiguration<K, V> implements CompleteConfiguration<K, V> {
     return this;
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Factory<Copier<K>> getKeyCopierFactory() {
+    return this.keyCopierFactory;
+  }
+
+  /**
+   * Set the {@link Factory} for the {@link Copier} of keys, used when the
+   * cache is store-by-value.
+   *
+   * @param factory the key {@link Copier} {@link Factory}
+   * @return the {@link MutableConfiguration} to permit fluent-style method calls
+   */
+  public MutableConfiguration<K, V> setKeyCopierFactory(Factory<? extends
+      Copier<K>> factory) {
+    this.keyCopierFactory = (Factory<Copier<K>>) factory;
+    return this;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Factory<Copier<V>> getValueCopierFactory() {
+    return this.valueCopierFactory;
+  }
+
+  /**
+   * Set the {@link Factory} for the {@link Copier} of values, used when the
+   * cache is store-by-value.
+   *
+   * @param factory the value {@link Copier} {@link Factory}
+   * @return the {@link MutableConfiguration} to permit fluent-style method calls
+   */
+  public MutableConfiguration<K, V> setValueCopierFactory(Factory<? extends
+      Copier<V>> factory) {
+    this.valueCopierFactory = (Factory<Copier<V>>) factory;
+    return this;
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -452,6 +730,225 @@ public class MutableConfiguration<K, V> implements CompleteConfiguration<K, V> {
     return this;
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getMaximumEntries() {
+    return this.maximumEntries;
+  }
+
+  /**
+   * Sets the maximum number of entries a cache may hold before entries are
+   * evicted.
+   *
+   * @param maximumEntries the maximum number of entries, or
+   *                       {@link Long#MAX_VALUE} if not bounded
+   * @return the {@link MutableConfiguration} to permit fluent-style method calls
+   * @throws IllegalArgumentException if maximumEntries is negative
+   */
+  public MutableConfiguration<K, V> setMaximumEntries(long maximumEntries) {
+    if (maximumEntries < 0) {
+      throw new IllegalArgumentException("maximumEntries can't be negative");
+    }
+    this.maximumEntries = maximumEntries;
+    return this;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getMaximumWeight() {
+    return this.maximumWeight;
+  }
+
+  /**
+   * Sets the maximum total weight of the entries a cache may hold before
+   * entries are evicted.
+   * <p>
+   * It is an invalid configuration to set this without specifying a
+   * {@link Weigher} {@link Factory}.
+   *
+   * @param maximumWeight the maximum total weight, or {@link Long#MAX_VALUE}
+   *                      if not bounded
+   * @return the {@link MutableConfiguration} to permit fluent-style method calls
+   * @throws IllegalArgumentException if maximumWeight is negative
+   */
+  public MutableConfiguration<K, V> setMaximumWeight(long maximumWeight) {
+    if (maximumWeight < 0) {
+      throw new IllegalArgumentException("maximumWeight can't be negative");
+    }
+    this.maximumWeight = maximumWeight;
+    return this;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Factory<Weigher<? super K, ? super V>> getWeigherFactory() {
+    return this.weigherFactory;
+  }
+
+  /**
+   * Set the {@link Weigher} factory.
+   *
+   * @param factory the {@link Weigher} {@link Factory}
+   * @return the {@link MutableConfiguration} to permit fluent-style method calls
+   */
+  public MutableConfiguration<K, V> setWeigherFactory(Factory<? extends
+      Weigher<? super K, ? super V>> factory) {
+    this.weigherFactory = (Factory<Weigher<? super K, ? super V>>) factory;
+    return this;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public EvictionAlgorithm getEvictionAlgorithm() {
+    return this.evictionAlgorithm;
+  }
+
+  /**
+   * Sets the {@link EvictionAlgorithm} used to select entries for eviction.
+   *
+   * @param evictionAlgorithm the {@link EvictionAlgorithm}, or
+   *                          <code>null</code> if the implementation should
+   *                          choose
+   * @return the {@link MutableConfiguration} to permit fluent-style method calls
+   */
+  public MutableConfiguration<K, V> setEvictionAlgorithm(
+      EvictionAlgorithm evictionAlgorithm) {
+    this.evictionAlgorithm = evictionAlgorithm;
+    return this;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getOffHeapSize() {
+    return this.offHeapSize;
+  }
+
+  /**
+   * Sets the number of bytes of storage outside of the Java heap that a cache
+   * may use to hold entries.
+   * <p>
+   * Off-heap storage requires the implementation to support
+   * {@link OptionalFeature#OFF_HEAP_STORAGE}.
+   *
+   * @param offHeapSize the number of bytes, or <code>0</code> to hold entries
+   *                    on the heap
+   * @return the {@link MutableConfiguration} to permit fluent-style method calls
+   * @throws IllegalArgumentException if offHeapSize is negative
+   */
+  public MutableConfiguration<K, V> setOffHeapSize(long offHeapSize) {
+    if (offHeapSize < 0) {
+      throw new IllegalArgumentException("offHeapSize can't be negative");
+    }
+    this.offHeapSize = offHeapSize;
+    return this;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Factory<Serializer<K>> getKeySerializerFactory() {
+    return this.keySerializerFactory;
+  }
+
+  /**
+   * Set the {@link Factory} for the key {@link Serializer}.
+   *
+   * @param factory the key {@link Serializer} {@link Factory}
+   * @return the {@link MutableConfiguration} to permit fluent-style method calls
+   */
+  public MutableConfiguration<K, V> setKeySerializerFactory(Factory<? extends
+      Serializer<K>> factory) {
+    this.keySerializerFactory = (Factory<Serializer<K>>) factory;
+    return this;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Factory<Serializer<V>> getValueSerializerFactory() {
+    return this.valueSerializerFactory;
+  }
+
+  /**
+   * Set the {@link Factory} for the value {@link Serializer}.
+   *
+   * @param factory the value {@link Serializer} {@link Factory}
+   * @return the {@link MutableConfiguration} to permit fluent-style method calls
+   */
+  public MutableConfiguration<K, V> setValueSerializerFactory(Factory<? extends
+      Serializer<V>> factory) {
+    this.valueSerializerFactory = (Factory<Serializer<V>>) factory;
+    return this;
+  }
+
+  /**
+   * Reconstitutes a {@link MutableConfiguration}.
+   * <p>
+   * Configurations serialized by earlier versions of this class lack the
+   * fields added since, which are given their default values rather than
+   * zero or <code>null</code>.  In particular such configurations remain
+   * unbounded.
+   *
+   * @param in the {@link ObjectInputStream} from which to read the
+   *           configuration
+   * @throws IOException            if the configuration could not be read
+   * @throws ClassNotFoundException if a class of the configuration is not
+   *                                found
+   */
+  @SuppressWarnings("unchecked")
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    ObjectInputStream.GetField fields = in.readFields();
+    this.keyType = (Class<K>) fields.get("keyType", Object.class);
+    this.valueType = (Class<V>) fields.get("valueType", Object.class);
+    this.listenerConfigurations = (HashSet<CacheEntryListenerConfiguration<K, V>>)
+        fields.get("listenerConfigurations", null);
+    if (this.listenerConfigurations == null) {
+      this.listenerConfigurations = new HashSet<CacheEntryListenerConfiguration<K, V>>();
+    }
+    this.cacheLoaderFactory = (Factory<CacheLoader<K, V>>) fields.get("cacheLoaderFactory", null);
+    this.cacheWriterFactory = (Factory<CacheWriter<? super K, ? super V>>)
+        fields.get("cacheWriterFactory", null);
+    this.expiryPolicyFactory = (Factory<ExpiryPolicy>) fields.get("expiryPolicyFactory", null);
+    this.cacheClockFactory = (Factory<CacheClock>) fields.get("cacheClockFactory", null);
+    if (this.cacheClockFactory == null) {
+      this.cacheClockFactory = SystemCacheClock.factoryOf();
+    }
+    this.isReadThrough = fields.get("isReadThrough", false);
+    this.refreshAheadFactor = fields.get("refreshAheadFactor", 0d);
+    this.staleWhileRevalidateDuration = (Duration) fields.get("staleWhileRevalidateDuration", null);
+    if (this.staleWhileRevalidateDuration == null) {
+      this.staleWhileRevalidateDuration = Duration.ZERO;
+    }
+    this.staleIfErrorDuration = (Duration) fields.get("staleIfErrorDuration", null);
+    if (this.staleIfErrorDuration == null) {
+      this.staleIfErrorDuration = Duration.ZERO;
+    }
+    this.isWriteThrough = fields.get("isWriteThrough", false);
+    this.isStatisticsEnabled = fields.get("isStatisticsEnabled", false);
+    this.isStoreByValue = fields.get("isStoreByValue", true);
+    this.isManagementEnabled = fields.get("isManagementEnabled", false);
+    this.maximumEntries = fields.get("maximumEntries", Long.MAX_VALUE);
+    this.maximumWeight = fields.get("maximumWeight", Long.MAX_VALUE);
+    this.weigherFactory = (Factory<Weigher<? super K, ? super V>>) fields.get("weigherFactory", null);
+    this.evictionAlgorithm = (EvictionAlgorithm) fields.get("evictionAlgorithm", null);
+    this.offHeapSize = fields.get("offHeapSize", 0L);
+    this.keySerializerFactory = (Factory<Serializer<K>>) fields.get("keySerializerFactory", null);
+    this.valueSerializerFactory = (Factory<Serializer<V>>) fields.get("valueSerializerFactory", null);
+    this.keyCopierFactory = (Factory<Copier<K>>) fields.get("keyCopierFactory", null);
+    this.valueCopierFactory = (Factory<Copier<V>>) fields.get("valueCopierFactory", null);
+  }
 
   /**
    * {@inheritDoc}
@@ -472,10 +969,33 @@ public class MutableConfiguration<K, V> implements CompleteConfiguration<K, V> {
         + ((cacheWriterFactory == null) ? 0 : cacheWriterFactory.hashCode());
     result = prime * result
         + ((expiryPolicyFactory == null) ? 0 : expiryPolicyFactory.hashCode());
+    result = prime * result
+        + ((cacheClockFactory == null) ? 0 : cacheClockFactory.hashCode());
     result = prime * result + (isReadThrough ? 1231 : 1237);
+    long refreshAheadBits = Double.doubleToLongBits(refreshAheadFactor);
+    result = prime * result + (int) (refreshAheadBits ^ (refreshAheadBits >>> 32));
+    result = prime * result + ((staleWhileRevalidateDuration == null) ? 0
+        : staleWhileRevalidateDuration.hashCode());
+    result = prime * result
+        + ((staleIfErrorDuration == null) ? 0 : staleIfErrorDuration.hashCode());
     result = prime * result + (isStatisticsEnabled ? 1231 : 1237);
     result = prime * result + (isStoreByValue ? 1231 : 1237);
     result = prime * result + (isWriteThrough ? 1231 : 1237);
+    result = prime * result + (int) (maximumEntries ^ (maximumEntries >>> 32));
+    result = prime * result + (int) (maximumWeight ^ (maximumWeight >>> 32));
+    result = prime * result
+        + ((weigherFactory == null) ? 0 : weigherFactory.hashCode());
+    result = prime * result
+        + ((evictionAlgorithm == null) ? 0 : evictionAlgorithm.hashCode());
+    result = prime * result + (int) (offHeapSize ^ (offHeapSize >>> 32));
+    result = prime * result
+        + ((keySerializerFactory == null) ? 0 : keySerializerFactory.hashCode());
+    result = prime * result
+        + ((valueSerializerFactory == null) ? 0 : valueSerializerFactory.hashCode());
+    result = prime * result
+        + ((keyCopierFactory == null) ? 0 : keyCopierFactory.hashCode());
+    result = prime * result
+        + ((valueCopierFactory == null) ? 0 : valueCopierFactory.hashCode());
     return result;
   }
 
@@ -525,9 +1045,34 @@ public class MutableConfiguration<K, V> implements CompleteConfiguration<K, V> {
     } else if (!expiryPolicyFactory.equals(other.expiryPolicyFactory)) {
       return false;
     }
+    if (cacheClockFactory == null) {
+      if (other.cacheClockFactory != null) {
+        return false;
+      }
+    } else if (!cacheClockFactory.equals(other.cacheClockFactory)) {
+      return false;
+    }
     if (isReadThrough != other.isReadThrough) {
       return false;
     }
+    if (Double.doubleToLongBits(refreshAheadFactor)
+        != Double.doubleToLongBits(other.refreshAheadFactor)) {
+      return false;
+    }
+    if (staleWhileRevalidateDuration == null) {
+      if (other.staleWhileRevalidateDuration != null) {
+        return false;
+      }
+    } else if (!staleWhileRevalidateDuration.equals(other.staleWhileRevalidateDuration)) {
+      return false;
+    }
+    if (staleIfErrorDuration == null) {
+      if (other.staleIfErrorDuration != null) {
+        return false;
+      }
+    } else if (!staleIfErrorDuration.equals(other.staleIfErrorDuration)) {
+      return false;
+    }
     if (isStatisticsEnabled != other.isStatisticsEnabled) {
       return false;
     }
@@ -537,6 +1082,53 @@ public class MutableConfiguration<K, V> implements CompleteConfiguration<K, V> {
     if (isWriteThrough != other.isWriteThrough) {
       return false;
     }
+    if (maximumEntries != other.maximumEntries) {
+      return false;
+    }
+    if (maximumWeight != other.maximumWeight) {
+      return false;
+    }
+    if (weigherFactory == null) {
+      if (other.weigherFactory != null) {
+        return false;
+      }
+    } else if (!weigherFactory.equals(other.weigherFactory)) {
+      return false;
+    }
+    if (evictionAlgorithm != other.evictionAlgorithm) {
+      return false;
+    }
+    if (offHeapSize != other.offHeapSize) {
+      return false;
+    }
+    if (keySerializerFactory == null) {
+      if (other.keySerializerFactory != null) {
+        return false;
+      }
+    } else if (!keySerializerFactory.equals(other.keySerializerFactory)) {
+      return false;
+    }
+    if (valueSerializerFactory == null) {
+      if (other.valueSerializerFactory != null) {
+        return false;
+      }
+    } else if (!valueSerializerFactory.equals(other.valueSerializerFactory)) {
+      return false;
+    }
+    if (keyCopierFactory == null) {
+      if (other.keyCopierFactory != null) {
+        return false;
+      }
+    } else if (!keyCopierFactory.equals(other.keyCopierFactory)) {
+      return false;
+    }
+    if (valueCopierFactory == null) {
+      if (other.valueCopierFactory != null) {
+        return false;
+      }
+    } else if (!valueCopierFactory.equals(other.valueCopierFactory)) {
+      return false;
+    }
     return true;
   }
 }
@@ -28,5 +28,25 @@ public enum OptionalFeature {
   /**
    * Implementation supports store by reference
    */
-  STORE_BY_REFERENCE
+  STORE_BY_REFERENCE,
+
+  /**
+   * Implementation supports views of caches with {@link Long} and
+   * {@link Integer} keys that accept primitive keys without boxing, obtained
+   * using {@link javax.cache.Cache#unwrap(Class)}.
+   *
+   * @see javax.cache.LongKeyCache
+   * @see javax.cache.IntKeyCache
+   * @since 1.2
+   */
+  PRIMITIVE_KEYS,
+
+  /**
+   * Implementation supports holding entries in storage outside of the Java
+   * heap.
+   *
+   * @see CompleteConfiguration#getOffHeapSize()
+   * @since 1.2
+   */
+  OFF_HEAP_STORAGE
 }
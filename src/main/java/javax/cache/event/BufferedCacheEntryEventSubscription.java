@@ -0,0 +1,391 @@
+/**
+ * Copyright 2011-2016 Terracotta, Inc.
+ * Copyright 2011-2016 Oracle America Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.cache.event;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A {@link CacheEntryEventSubscription} that buffers events in a bounded queue
+ * until the {@link CacheEntryEventSubscriber} requests them.
+ * <p>
+ * Implementations of
+ * {@link javax.cache.Cache#subscribe(CacheEntryEventSubscriber,
+ * CacheEntryEventFilter, int, EventOverflowPolicy)} may create a
+ * {@link BufferedCacheEntryEventSubscription} for each subscriber,
+ * {@link #start()} it, and {@link #publish(CacheEntryEvent)} each event that
+ * passes the subscriber's filter, until {@link #publish(CacheEntryEvent)}
+ * returns <code>false</code> because the subscription was cancelled.
+ * <p>
+ * Events are delivered by an {@link Executor}, in batches of at most the
+ * maximum batch size and the outstanding demand, with the signals to the
+ * subscriber serialized as required by the Reactive Streams protocol.  When
+ * the buffer is full, the {@link EventOverflowPolicy} applies:
+ * {@link EventOverflowPolicy#BLOCK} holds up the publishing thread until the
+ * subscriber requests more events, propagating backpressure to cache writers,
+ * while {@link EventOverflowPolicy#REJECT} fails the subscription.  Should the
+ * {@link Executor} reject a delivery, the subscription fails with the
+ * {@link RejectedExecutionException}, which is signalled to the subscriber on
+ * the thread that scheduled the delivery.
+ * <p>
+ * Should the subscriber throw from one of its methods, the subscription is
+ * treated as cancelled, as required by the Reactive Streams protocol, and the
+ * failure is available from {@link #getSubscriberFailure()}.  Failures of the
+ * subscriber are never propagated to the threads publishing events.
+ *
+ * @param <K> the type of key
+ * @param <V> the type of value
+ * @since 1.2
+ * @see CacheEntryEventSubscriber
+ */
+public class BufferedCacheEntryEventSubscription<K, V> implements CacheEntryEventSubscription {
+
+  private final CacheEntryEventSubscriber<K, V> subscriber;
+
+  private final BlockingQueue<CacheEntryEvent<? extends K, ? extends V>> buffer;
+
+  private final int bufferCapacity;
+
+  private final int maxBatchSize;
+
+  private final EventOverflowPolicy overflowPolicy;
+
+  private final Executor executor;
+
+  private final AtomicLong demand = new AtomicLong();
+
+  private final AtomicInteger pendingDrains = new AtomicInteger();
+
+  private final AtomicLong droppedCount = new AtomicLong();
+
+  private final Runnable drainTask = new Runnable() {
+    @Override
+    public void run() {
+      drain();
+    }
+  };
+
+  /**
+   * The marker of a subscription completed without error.
+   */
+  private static final Object COMPLETED = new Object();
+
+  private volatile boolean isCancelled;
+
+  /**
+   * The terminal state requested by {@link #complete()} or
+   * {@link #error(Throwable)}: <code>null</code> until then, and afterwards
+   * either {@link #COMPLETED} or the {@link Throwable} of the failure.
+   */
+  private final AtomicReference<Object> termination = new AtomicReference<Object>();
+
+  private volatile Throwable subscriberFailure;
+
+  private boolean isTerminated;
+
+  /**
+   * Constructs a {@link BufferedCacheEntryEventSubscription}.
+   *
+   * @param subscriber     the {@link CacheEntryEventSubscriber}
+   * @param bufferCapacity the maximum number of undelivered events
+   * @param maxBatchSize   the maximum number of events delivered together
+   * @param overflowPolicy the {@link EventOverflowPolicy} when the buffer is
+   *                       full
+   * @param executor       the {@link Executor} delivering events, or
+   *                       <code>null</code> to deliver them on the thread that
+   *                       publishes or requests them
+   * @throws NullPointerException     if the subscriber or overflowPolicy is null
+   * @throws IllegalArgumentException if the bufferCapacity or maxBatchSize is
+   *                                  less than 1
+   */
+  @SuppressWarnings("unchecked")
+  public BufferedCacheEntryEventSubscription(
+      CacheEntryEventSubscriber<? super K, ? super V> subscriber,
+      int bufferCapacity, int maxBatchSize, EventOverflowPolicy overflowPolicy,
+      Executor executor) {
+    if (subscriber == null || overflowPolicy == null) {
+      throw new NullPointerException("subscriber and overflowPolicy can't be null");
+    }
+    if (bufferCapacity < 1 || maxBatchSize < 1) {
+      throw new IllegalArgumentException("bufferCapacity and maxBatchSize must be at least 1");
+    }
+    this.subscriber = (CacheEntryEventSubscriber<K, V>) subscriber;
+    this.buffer = new ArrayBlockingQueue<CacheEntryEvent<? extends K, ? extends V>>(bufferCapacity);
+    this.bufferCapacity = bufferCapacity;
+    this.maxBatchSize = maxBatchSize;
+    this.overflowPolicy = overflowPolicy;
+    this.executor = executor;
+  }
+
+  /**
+   * Starts the subscription by calling
+   * {@link CacheEntryEventSubscriber#onSubscribe(CacheEntryEventSubscription)}
+   * on the calling thread.  Must be called once, before events are published.
+   */
+  public void start() {
+    subscriber.onSubscribe(this);
+  }
+
+  /**
+   * Publishes an event, buffering it until the subscriber requests it.
+   *
+   * @param event the {@link CacheEntryEvent}
+   * @return <code>false</code> if the subscription is cancelled or terminated,
+   *         and no further events should be published
+   * @throws NullPointerException if the event is null
+   */
+  public boolean publish(CacheEntryEvent<? extends K, ? extends V> event) {
+    if (event == null) {
+      throw new NullPointerException("event can't be null");
+    }
+    if (isCancelled || termination.get() != null) {
+      return false;
+    }
+    if (!buffer.offer(event)) {
+      switch (overflowPolicy) {
+        case BLOCK:
+          try {
+            while (!buffer.offer(event, 100, TimeUnit.MILLISECONDS)) {
+              if (isCancelled || termination.get() != null) {
+                return false;
+              }
+            }
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            droppedCount.incrementAndGet();
+            throw new CacheEntryListenerException("Interrupted while publishing an event", e);
+          }
+          break;
+        case DROP_OLDEST:
+          while (!buffer.offer(event)) {
+            if (buffer.poll() != null) {
+              droppedCount.incrementAndGet();
+            }
+          }
+          break;
+        case REJECT:
+          droppedCount.incrementAndGet();
+          error(new CacheEntryListenerException("The subscription buffer of " +
+              bufferCapacity + " events overflowed"));
+          return false;
+        case DROP_NEWEST:
+        default:
+          droppedCount.incrementAndGet();
+          break;
+      }
+    }
+    scheduleDrain();
+    return true;
+  }
+
+  /**
+   * Completes the subscription once the buffered events have been delivered,
+   * for example when the cache is closed.
+   */
+  public void complete() {
+    if (termination.compareAndSet(null, COMPLETED)) {
+      scheduleDrain();
+    }
+  }
+
+  /**
+   * Fails the subscription, discarding the buffered events.  Has no effect
+   * once the subscription has been completed or failed.
+   *
+   * @param throwable the cause of the failure
+   */
+  public void error(Throwable throwable) {
+    if (termination.compareAndSet(null, throwable)) {
+      scheduleDrain();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void request(long n) {
+    if (n <= 0) {
+      error(new IllegalArgumentException("The number of requested events must be positive"));
+      return;
+    }
+    while (true) {
+      long current = demand.get();
+      long updated = current + n;
+      if (updated < 0) {
+        updated = Long.MAX_VALUE;
+      }
+      if (current == Long.MAX_VALUE || demand.compareAndSet(current, updated)) {
+        break;
+      }
+    }
+    scheduleDrain();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void cancel() {
+    isCancelled = true;
+    scheduleDrain();
+  }
+
+  /**
+   * Determines if the subscription is cancelled.
+   *
+   * @return <code>true</code> if the subscription is cancelled
+   */
+  public boolean isCancelled() {
+    return isCancelled;
+  }
+
+  /**
+   * Gets the exception or error thrown by the subscriber, which cancelled the
+   * subscription.
+   *
+   * @return the failure of the subscriber, or <code>null</code> if it hasn't
+   *         failed
+   */
+  public Throwable getSubscriberFailure() {
+    return subscriberFailure;
+  }
+
+  /**
+   * Gets the number of buffered events.
+   *
+   * @return the number of buffered events
+   */
+  public int getBufferSize() {
+    return buffer.size();
+  }
+
+  /**
+   * Gets the outstanding demand for events.
+   *
+   * @return the number of requested events not yet delivered, or
+   *         {@link Long#MAX_VALUE} if the demand is unbounded
+   */
+  public long getDemand() {
+    return demand.get();
+  }
+
+  /**
+   * Gets the number of events dropped because the buffer was full.
+   *
+   * @return the number of dropped events
+   */
+  public long getDroppedCount() {
+    return droppedCount.get();
+  }
+
+  /**
+   * Schedules the delivery of events unless a delivery is already in
+   * progress, in which case that delivery will run again.
+   */
+  private void scheduleDrain() {
+    if (pendingDrains.getAndIncrement() == 0) {
+      if (executor == null) {
+        drain();
+      } else {
+        try {
+          executor.execute(drainTask);
+        } catch (RejectedExecutionException e) {
+          //no further events can be delivered, so fail the subscription and
+          //signal the subscriber on this thread
+          Object state = termination.get();
+          while (!(state instanceof Throwable) && !termination.compareAndSet(state, e)) {
+            state = termination.get();
+          }
+          drain();
+        }
+      }
+    }
+  }
+
+  /**
+   * Delivers buffered events up to the demand, and terminal signals, until no
+   * further deliveries have been scheduled.  Only one thread delivers at a
+   * time.
+   */
+  private void drain() {
+    int missed = 1;
+    while (true) {
+      try {
+        drainOnce();
+      } catch (Throwable t) {
+        //a failing subscriber is considered to have cancelled the subscription
+        subscriberFailure = t;
+        isCancelled = true;
+        buffer.clear();
+      }
+      missed = pendingDrains.addAndGet(-missed);
+      if (missed == 0) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Delivers buffered events up to the demand, and the terminal signal once
+   * requested and the buffer is empty.
+   */
+  private void drainOnce() {
+    if (isCancelled) {
+      buffer.clear();
+    } else if (!isTerminated) {
+      deliverEvents();
+      Object state = termination.get();
+      if (state != null && (state != COMPLETED || buffer.isEmpty())) {
+        isTerminated = true;
+        buffer.clear();
+        if (state == COMPLETED) {
+          subscriber.onComplete();
+        } else {
+          subscriber.onError((Throwable) state);
+        }
+      }
+    }
+  }
+
+  /**
+   * Delivers batches of buffered events while there is demand.
+   */
+  private void deliverEvents() {
+    long requested = demand.get();
+    while (requested > 0 && !isCancelled && !(termination.get() instanceof Throwable)) {
+      List<CacheEntryEvent<? extends K, ? extends V>> batch =
+          new ArrayList<CacheEntryEvent<? extends K, ? extends V>>();
+      buffer.drainTo(batch, (int) Math.min(requested, maxBatchSize));
+      if (batch.isEmpty()) {
+        return;
+      }
+      subscriber.onNext(Collections.unmodifiableList(batch));
+      requested = requested == Long.MAX_VALUE
+          ? Long.MAX_VALUE : demand.addAndGet(-batch.size());
+    }
+  }
+}
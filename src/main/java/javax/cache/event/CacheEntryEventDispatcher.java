@@ -0,0 +1,994 @@
+/**
+ * Copyright 2011-2016 Terracotta, Inc.
+ * Copyright 2011-2016 Oracle America Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.cache.event;
+
+import javax.cache.Cache;
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers {@link CacheEntryEvent}s to an asynchronous
+ * {@link CacheEntryListener}, that is one whose
+ * {@link javax.cache.configuration.CacheEntryListenerConfiguration#isSynchronous()}
+ * is <code>false</code>, in batches on a background thread.
+ * <p>
+ * Implementations create a {@link CacheEntryEventDispatcher} for each
+ * registered asynchronous listener, and {@link #dispatch(CacheEntryEvent)}
+ * each event that passes the listener's {@link CacheEntryEventFilter}.  Events
+ * are held in a queue of bounded capacity, so that bursts of cache mutations
+ * can't exhaust memory, with an {@link EventOverflowPolicy} determining what
+ * happens when the queue is full.
+ * <p>
+ * Events are delivered in the order they were dispatched, in batches of up to
+ * a maximum size.  Having received an event, the dispatcher waits up to a
+ * maximum latency for further events to fill the batch before delivering it.
+ * A batch is delivered as consecutive runs of events of the same
+ * {@link EventType}, each with a single call of the corresponding
+ * {@link CacheEntryListener} method, so a burst of creations is delivered by a
+ * single call of {@link CacheEntryCreatedListener#onCreated(Iterable)}.
+ * <p>
+ * For listeners that can't keep up on a single thread, events may be
+ * delivered in parallel by several threads, each with its own queue.  The
+ * events for a key are always queued for the same thread, determined by the
+ * hash code of the key, so they are delivered in the order they were
+ * dispatched, while events for different keys are delivered concurrently.
+ * The listener must then be thread-safe.
+ * <p>
+ * Listeners that only need the latest state of each entry may have events
+ * coalesced: an event for a key that has an undelivered event is merged into
+ * it, rather than queued, producing a single event with the first old value
+ * and the last value.  A creation followed by an update is delivered as a
+ * creation of the last value, an update followed by a removal is delivered as
+ * a removal of the last value, and a creation followed by a removal is not
+ * delivered at all.  The merged event is delivered in the position of the
+ * first event for the key, and queue capacity is consumed only by keys with
+ * undelivered events.
+ * <p>
+ * Exceptions thrown by the listener are counted and otherwise ignored, as
+ * asynchronous listeners can't affect the operations that caused the events.
+ * Errors, such as an {@link OutOfMemoryError}, are not caught and stop the
+ * delivery thread, after which events for its keys are refused.  The counters and the queue size may be monitored to size the queue and
+ * detect slow listeners.
+ * <p>
+ * A {@link CacheEntryEventDispatcher} is thread-safe.  It must be closed when
+ * the listener is deregistered or the cache is closed.
+ *
+ * @param <K> the type of key
+ * @param <V> the type of value
+ * @since 1.2
+ * @see EventOverflowPolicy
+ */
+public final class CacheEntryEventDispatcher<K, V> implements Closeable {
+
+  /**
+   * The default maximum number of events in a batch.
+   */
+  public static final int DEFAULT_MAX_BATCH_SIZE = 256;
+
+  /**
+   * The default maximum time, in milliseconds, an event waits for a batch to
+   * fill before it is delivered.
+   */
+  public static final long DEFAULT_MAX_BATCH_LATENCY_MILLIS = 10;
+
+  /**
+   * The time, in milliseconds, an idle dispatcher waits for events before
+   * checking whether it has been closed, should the close not have been
+   * signalled through a full queue, and a blocked dispatch waits before
+   * checking whether the delivery thread has stopped.
+   */
+  private static final long IDLE_POLL_MILLIS = 100;
+
+  /**
+   * The item queued by {@link #close()} to wake an idle delivery thread.
+   */
+  private static final Object CLOSE_SIGNAL = new Object();
+
+  private final CacheEntryListener<K, V> listener;
+
+  private final int queueCapacity;
+
+  private final int parallelism;
+
+  private final int maxBatchSize;
+
+  private final long maxBatchLatencyNanos;
+
+  private final EventOverflowPolicy overflowPolicy;
+
+  private final boolean isCoalescing;
+
+  private final Worker[] workers;
+
+  private volatile boolean isClosed;
+
+  private final AtomicLong dispatchedCount = new AtomicLong();
+
+  private final AtomicLong deliveredCount = new AtomicLong();
+
+  private final AtomicLong droppedCount = new AtomicLong();
+
+  private final AtomicLong failedCount = new AtomicLong();
+
+  private final AtomicLong batchCount = new AtomicLong();
+
+  private final AtomicLong coalescedCount = new AtomicLong();
+
+  /**
+   * Constructs a {@link CacheEntryEventDispatcher} with the default batch size
+   * and latency that blocks when the queue is full, delivering events on a
+   * daemon thread.
+   *
+   * @param listener      the {@link CacheEntryListener}
+   * @param queueCapacity the maximum number of undelivered events
+   */
+  public CacheEntryEventDispatcher(CacheEntryListener<? super K, ? super V> listener,
+                                   int queueCapacity) {
+    this(listener, queueCapacity, DEFAULT_MAX_BATCH_SIZE,
+        DEFAULT_MAX_BATCH_LATENCY_MILLIS, TimeUnit.MILLISECONDS,
+        EventOverflowPolicy.BLOCK, null);
+  }
+
+  /**
+   * Constructs a {@link CacheEntryEventDispatcher}.
+   *
+   * @param listener        the {@link CacheEntryListener}
+   * @param queueCapacity   the maximum number of undelivered events
+   * @param maxBatchSize    the maximum number of events delivered together
+   * @param maxBatchLatency the maximum time an event waits for a batch to fill,
+   *                        or <code>0</code> to deliver the events that are
+   *                        immediately available
+   * @param timeUnit        the {@link TimeUnit} of the maxBatchLatency
+   * @param overflowPolicy  the {@link EventOverflowPolicy} when the queue is
+   *                        full
+   * @param threadFactory   the {@link ThreadFactory} creating the delivery
+   *                        thread, or <code>null</code> to use a daemon thread
+   * @throws NullPointerException     if the listener, timeUnit or
+   *                                  overflowPolicy is null
+   * @throws IllegalArgumentException if the queueCapacity or maxBatchSize is
+   *                                  less than 1 or the maxBatchLatency is
+   *                                  negative
+   */
+  public CacheEntryEventDispatcher(CacheEntryListener<? super K, ? super V> listener,
+                                   int queueCapacity,
+                                   int maxBatchSize,
+                                   long maxBatchLatency,
+                                   TimeUnit timeUnit,
+                                   EventOverflowPolicy overflowPolicy,
+                                   ThreadFactory threadFactory) {
+    this(listener, queueCapacity, maxBatchSize, maxBatchLatency, timeUnit,
+        overflowPolicy, threadFactory, 1);
+  }
+
+  /**
+   * Constructs a {@link CacheEntryEventDispatcher} that delivers events in
+   * parallel, preserving the order of the events for each key.
+   *
+   * @param listener        the thread-safe {@link CacheEntryListener}
+   * @param queueCapacity   the maximum number of undelivered events, shared
+   *                        equally between the delivery threads
+   * @param maxBatchSize    the maximum number of events delivered together
+   * @param maxBatchLatency the maximum time an event waits for a batch to fill,
+   *                        or <code>0</code> to deliver the events that are
+   *                        immediately available
+   * @param timeUnit        the {@link TimeUnit} of the maxBatchLatency
+   * @param overflowPolicy  the {@link EventOverflowPolicy} when a queue is
+   *                        full
+   * @param threadFactory   the {@link ThreadFactory} creating the delivery
+   *                        threads, or <code>null</code> to use daemon threads
+   * @param parallelism     the number of delivery threads
+   * @throws NullPointerException     if the listener, timeUnit or
+   *                                  overflowPolicy is null
+   * @throws IllegalArgumentException if the queueCapacity, maxBatchSize or
+   *                                  parallelism is less than 1, the
+   *                                  queueCapacity is less than the
+   *                                  parallelism, or the maxBatchLatency is
+   *                                  negative
+   */
+  public CacheEntryEventDispatcher(CacheEntryListener<? super K, ? super V> listener,
+                                   int queueCapacity,
+                                   int maxBatchSize,
+                                   long maxBatchLatency,
+                                   TimeUnit timeUnit,
+                                   EventOverflowPolicy overflowPolicy,
+                                   ThreadFactory threadFactory,
+                                   int parallelism) {
+    this(listener, queueCapacity, maxBatchSize, maxBatchLatency, timeUnit,
+        overflowPolicy, threadFactory, parallelism, false);
+  }
+
+  /**
+   * Constructs a {@link CacheEntryEventDispatcher} that delivers events in
+   * parallel, preserving the order of the events for each key, and optionally
+   * coalesces the undelivered events for each key.
+   *
+   * @param listener        the thread-safe {@link CacheEntryListener}
+   * @param queueCapacity   the maximum number of undelivered events, shared
+   *                        equally between the delivery threads
+   * @param maxBatchSize    the maximum number of events delivered together
+   * @param maxBatchLatency the maximum time an event waits for a batch to fill,
+   *                        or <code>0</code> to deliver the events that are
+   *                        immediately available
+   * @param timeUnit        the {@link TimeUnit} of the maxBatchLatency
+   * @param overflowPolicy  the {@link EventOverflowPolicy} when a queue is
+   *                        full
+   * @param threadFactory   the {@link ThreadFactory} creating the delivery
+   *                        threads, or <code>null</code> to use daemon threads
+   * @param parallelism     the number of delivery threads
+   * @param isCoalescing    <code>true</code> to merge the undelivered events
+   *                        for each key
+   * @throws NullPointerException     if the listener, timeUnit or
+   *                                  overflowPolicy is null
+   * @throws IllegalArgumentException if the queueCapacity, maxBatchSize or
+   *                                  parallelism is less than 1, the
+   *                                  queueCapacity is less than the
+   *                                  parallelism, or the maxBatchLatency is
+   *                                  negative
+   */
+  @SuppressWarnings("unchecked")
+  public CacheEntryEventDispatcher(CacheEntryListener<? super K, ? super V> listener,
+                                   int queueCapacity,
+                                   int maxBatchSize,
+                                   long maxBatchLatency,
+                                   TimeUnit timeUnit,
+                                   EventOverflowPolicy overflowPolicy,
+                                   ThreadFactory threadFactory,
+                                   int parallelism,
+                                   boolean isCoalescing) {
+    if (listener == null || timeUnit == null || overflowPolicy == null) {
+      throw new NullPointerException("listener, timeUnit and overflowPolicy can't be null");
+    }
+    if (queueCapacity < 1 || maxBatchSize < 1 || parallelism < 1) {
+      throw new IllegalArgumentException("queueCapacity, maxBatchSize and parallelism " +
+          "must be at least 1");
+    }
+    if (queueCapacity < parallelism) {
+      throw new IllegalArgumentException("queueCapacity can't be less than parallelism");
+    }
+    if (maxBatchLatency < 0) {
+      throw new IllegalArgumentException("maxBatchLatency can't be negative");
+    }
+    this.listener = (CacheEntryListener<K, V>) listener;
+    this.queueCapacity = queueCapacity;
+    this.parallelism = parallelism;
+    this.maxBatchSize = maxBatchSize;
+    this.maxBatchLatencyNanos = timeUnit.toNanos(maxBatchLatency);
+    this.overflowPolicy = overflowPolicy;
+    this.isCoalescing = isCoalescing;
+    this.isClosed = false;
+
+    ThreadFactory factory = threadFactory == null ? new DaemonThreadFactory(listener) : threadFactory;
+    this.workers = (Worker[]) new CacheEntryEventDispatcher<?, ?>.Worker[parallelism];
+    for (int i = 0; i < parallelism; i++) {
+      //share the capacity, giving the remainder to the first workers
+      workers[i] = new Worker(queueCapacity / parallelism + (i < queueCapacity % parallelism ? 1 : 0));
+    }
+    for (Worker worker : workers) {
+      worker.start(factory);
+    }
+  }
+
+  /**
+   * Queues an event for delivery to the listener, applying the
+   * {@link EventOverflowPolicy} if the queue is full.
+   *
+   * @param event the {@link CacheEntryEvent}
+   * @throws NullPointerException        if the event is null
+   * @throws IllegalStateException       if the dispatcher is closed, or the
+   *                                     thread delivering events for the key
+   *                                     has stopped
+   * @throws CacheEntryListenerException if the event is rejected by the
+   *                                     {@link EventOverflowPolicy}, or the
+   *                                     thread is interrupted while blocked
+   */
+  public void dispatch(CacheEntryEvent<? extends K, ? extends V> event) {
+    if (event == null) {
+      throw new NullPointerException("event can't be null");
+    }
+    if (isClosed) {
+      throw new IllegalStateException("dispatcher is closed");
+    }
+    Worker worker = workerFor(event.getKey());
+    worker.checkRunning();
+    dispatchedCount.incrementAndGet();
+    worker.dispatch(event);
+  }
+
+  /**
+   * Queues events for delivery to the listener, in order.
+   *
+   * @param events the {@link CacheEntryEvent}s
+   * @throws NullPointerException        if the events or any event is null
+   * @throws IllegalStateException       if the dispatcher is closed, or a
+   *                                     delivery thread has stopped
+   * @throws CacheEntryListenerException if an event is rejected by the
+   *                                     {@link EventOverflowPolicy}, or the
+   *                                     thread is interrupted while blocked
+   * @see #dispatch(CacheEntryEvent)
+   */
+  public void dispatchAll(Iterable<? extends CacheEntryEvent<? extends K, ? extends V>> events) {
+    for (CacheEntryEvent<? extends K, ? extends V> event : events) {
+      dispatch(event);
+    }
+  }
+
+  /**
+   * Stops accepting events and waits for the queued events to be delivered.
+   * Closing a closed dispatcher has no effect.
+   */
+  @Override
+  public void close() {
+    isClosed = true;
+    for (Worker worker : workers) {
+      //a full queue needs no signal, as the thread isn't idle
+      worker.queue.offer(CLOSE_SIGNAL);
+    }
+    for (Worker worker : workers) {
+      worker.awaitTermination();
+    }
+  }
+
+  /**
+   * Determines if the dispatcher is closed.
+   *
+   * @return <code>true</code> if the dispatcher is closed
+   */
+  public boolean isClosed() {
+    return isClosed;
+  }
+
+  /**
+   * Gets the number of events queued but not yet delivered.
+   *
+   * @return the queue size
+   */
+  public int getQueueSize() {
+    int size = 0;
+    for (Worker worker : workers) {
+      size += worker.queue.size();
+    }
+    return size;
+  }
+
+  /**
+   * Gets the maximum number of undelivered events.
+   *
+   * @return the queue capacity
+   */
+  public int getQueueCapacity() {
+    return queueCapacity;
+  }
+
+  /**
+   * Gets the number of threads delivering events.
+   *
+   * @return the parallelism
+   */
+  public int getParallelism() {
+    return parallelism;
+  }
+
+  /**
+   * Determines if the undelivered events for each key are coalesced.
+   *
+   * @return <code>true</code> if events are coalesced
+   */
+  public boolean isCoalescing() {
+    return isCoalescing;
+  }
+
+  /**
+   * Gets the number of events dispatched, including those dropped.
+   *
+   * @return the number of dispatched events
+   */
+  public long getDispatchedCount() {
+    return dispatchedCount.get();
+  }
+
+  /**
+   * Gets the number of events delivered to the listener.
+   *
+   * @return the number of delivered events
+   */
+  public long getDeliveredCount() {
+    return deliveredCount.get();
+  }
+
+  /**
+   * Gets the number of events dropped or rejected because the queue was full.
+   *
+   * @return the number of dropped events
+   */
+  public long getDroppedCount() {
+    return droppedCount.get();
+  }
+
+  /**
+   * Gets the number of calls of the listener that threw an exception.  A
+   * failing call doesn't stop the delivery of further events.
+   *
+   * @return the number of failed listener calls
+   */
+  public long getFailedCount() {
+    return failedCount.get();
+  }
+
+  /**
+   * Gets the number of events merged into an undelivered event for the same
+   * key.
+   *
+   * @return the number of coalesced events
+   */
+  public long getCoalescedCount() {
+    return coalescedCount.get();
+  }
+
+  /**
+   * Gets the number of batches delivered to the listener.
+   *
+   * @return the number of batches
+   */
+  public long getBatchCount() {
+    return batchCount.get();
+  }
+
+  /**
+   * Determines the {@link Worker} that delivers the events for a key.
+   *
+   * @param key the key
+   * @return the {@link Worker}
+   */
+  private Worker workerFor(Object key) {
+    if (workers.length == 1) {
+      return workers[0];
+    }
+    int hash = key == null ? 0 : key.hashCode();
+    hash ^= hash >>> 16;
+    return workers[(hash & Integer.MAX_VALUE) % workers.length];
+  }
+
+  /**
+   * Delivers a batch of events as runs of events of the same
+   * {@link EventType}.
+   *
+   * @param batch the batch
+   */
+  private void deliver(List<CacheEntryEvent<? extends K, ? extends V>> batch) {
+    int start = 0;
+    while (start < batch.size()) {
+      EventType eventType = batch.get(start).getEventType();
+      int end = start + 1;
+      while (end < batch.size() && batch.get(end).getEventType() == eventType) {
+        end++;
+      }
+      deliver(eventType, Collections.unmodifiableList(batch.subList(start, end)));
+      start = end;
+    }
+    batchCount.incrementAndGet();
+  }
+
+  /**
+   * Delivers a run of events of the same {@link EventType} to the listener,
+   * if it listens for the {@link EventType}.
+   *
+   * @param eventType the {@link EventType}
+   * @param events    the events
+   */
+  @SuppressWarnings("unchecked")
+  private void deliver(EventType eventType,
+                       List<CacheEntryEvent<? extends K, ? extends V>> events) {
+    try {
+      switch (eventType) {
+        case CREATED:
+          if (listener instanceof CacheEntryCreatedListener) {
+            ((CacheEntryCreatedListener<K, V>) listener).onCreated(events);
+          }
+          break;
+        case UPDATED:
+          if (listener instanceof CacheEntryUpdatedListener) {
+            ((CacheEntryUpdatedListener<K, V>) listener).onUpdated(events);
+          }
+          break;
+        case REMOVED:
+          if (listener instanceof CacheEntryRemovedListener) {
+            ((CacheEntryRemovedListener<K, V>) listener).onRemoved(events);
+          }
+          break;
+        case EXPIRED:
+          if (listener instanceof CacheEntryExpiredListener) {
+            ((CacheEntryExpiredListener<K, V>) listener).onExpired(events);
+          }
+          break;
+        default:
+          break;
+      }
+      deliveredCount.addAndGet(events.size());
+    } catch (Exception e) {
+      //keep delivering events, the listener must handle its own failures
+      failedCount.incrementAndGet();
+    }
+  }
+
+  /**
+   * A bounded queue of events and the thread that delivers them.
+   * <p>
+   * When coalescing, the queue holds a {@link PendingEvent} for each key with
+   * undelivered events, into which further events for the key are merged
+   * until the {@link PendingEvent} is taken for delivery.  Otherwise the queue
+   * holds the dispatched {@link CacheEntryEvent}s.
+   * <p>
+   * Once the thread stops taking events, because the dispatcher was closed,
+   * the thread was interrupted or the listener threw an error, further events
+   * are refused with an {@link IllegalStateException} rather than being queued
+   * and lost.
+   */
+  private final class Worker implements Runnable {
+
+    private final BlockingQueue<Object> queue;
+
+    private final Map<Object, PendingEvent<K, V>> pendingEvents;
+
+    private Thread thread;
+
+    /**
+     * Has the thread stopped taking events from the queue?
+     */
+    private volatile boolean isStopped;
+
+    /**
+     * Was the thread stopped before the dispatcher was closed?
+     */
+    private volatile boolean isAborted;
+
+    Worker(int capacity) {
+      this.queue = new ArrayBlockingQueue<Object>(capacity);
+      this.pendingEvents = isCoalescing ? new HashMap<Object, PendingEvent<K, V>>() : null;
+    }
+
+    /**
+     * Starts the thread that delivers the events.
+     *
+     * @param threadFactory the {@link ThreadFactory}
+     */
+    void start(ThreadFactory threadFactory) {
+      thread = threadFactory.newThread(this);
+      thread.start();
+    }
+
+    /**
+     * Ensures the thread is still taking events.
+     *
+     * @throws IllegalStateException if the thread has stopped
+     */
+    void checkRunning() {
+      if (isStopped) {
+        throw new IllegalStateException(isAborted ? "the delivery thread has stopped" :
+            "dispatcher is closed");
+      }
+    }
+
+    /**
+     * Queues an event, merging it into a pending event for the same key when
+     * coalescing.
+     *
+     * @param event the event
+     */
+    void dispatch(CacheEntryEvent<? extends K, ? extends V> event) {
+      if (pendingEvents == null) {
+        enqueue(event);
+        return;
+      }
+
+      PendingEvent<K, V> pendingEvent;
+      synchronized (pendingEvents) {
+        pendingEvent = pendingEvents.get(event.getKey());
+        if (pendingEvent != null) {
+          pendingEvent.merge(event);
+          coalescedCount.incrementAndGet();
+          return;
+        }
+        pendingEvent = new PendingEvent<K, V>(event);
+        pendingEvents.put(event.getKey(), pendingEvent);
+      }
+
+      boolean isQueued = false;
+      try {
+        isQueued = enqueue(pendingEvent);
+      } finally {
+        if (!isQueued) {
+          discard(pendingEvent);
+        }
+      }
+    }
+
+    /**
+     * Queues an item, applying the {@link EventOverflowPolicy}.
+     *
+     * @param item the event or {@link PendingEvent}
+     * @return <code>true</code> if the item was queued
+     */
+    boolean enqueue(Object item) {
+      if (!offer(item)) {
+        return false;
+      }
+      if (isStopped && queue.remove(item)) {
+        //the thread stopped before taking the item, so it would never be delivered
+        checkRunning();
+      }
+      return true;
+    }
+
+    /**
+     * Offers an item to the queue, applying the {@link EventOverflowPolicy}.
+     *
+     * @param item the event or {@link PendingEvent}
+     * @return <code>true</code> if the item was queued
+     */
+    @SuppressWarnings("unchecked")
+    private boolean offer(Object item) {
+      if (queue.offer(item)) {
+        return true;
+      }
+      switch (overflowPolicy) {
+        case BLOCK:
+          try {
+            //wait in rounds, so that a stopped thread doesn't block dispatch forever
+            while (!queue.offer(item, IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+              checkRunning();
+            }
+            return true;
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            droppedCount.incrementAndGet();
+            throw new CacheEntryListenerException("Interrupted while dispatching an event", e);
+          }
+        case DROP_OLDEST:
+          while (!queue.offer(item)) {
+            Object oldest = queue.poll();
+            if (oldest != null) {
+              droppedCount.incrementAndGet();
+              if (oldest instanceof PendingEvent) {
+                discard((PendingEvent<K, V>) oldest);
+              }
+            }
+          }
+          return true;
+        case REJECT:
+          droppedCount.incrementAndGet();
+          throw new CacheEntryListenerException("The event queue of " + queueCapacity +
+              " events is full");
+        case DROP_NEWEST:
+        default:
+          droppedCount.incrementAndGet();
+          return false;
+      }
+    }
+
+    /**
+     * Removes a {@link PendingEvent} that won't be delivered, so that further
+     * events for its key are queued.
+     *
+     * @param pendingEvent the {@link PendingEvent}
+     */
+    void discard(PendingEvent<K, V> pendingEvent) {
+      synchronized (pendingEvents) {
+        if (pendingEvents.get(pendingEvent.key) == pendingEvent) {
+          pendingEvents.remove(pendingEvent.key);
+        }
+      }
+    }
+
+    /**
+     * Obtains the event to deliver for a queued item, completing the
+     * coalescing of a {@link PendingEvent}.
+     *
+     * @param item the event or {@link PendingEvent}
+     * @return the event, or <code>null</code> if the coalesced events cancel
+     *         out
+     */
+    @SuppressWarnings("unchecked")
+    CacheEntryEvent<? extends K, ? extends V> resolve(Object item) {
+      if (item instanceof PendingEvent) {
+        PendingEvent<K, V> pendingEvent = (PendingEvent<K, V>) item;
+        synchronized (pendingEvents) {
+          pendingEvents.remove(pendingEvent.key);
+          return pendingEvent.toEvent();
+        }
+      } else {
+        return (CacheEntryEvent<? extends K, ? extends V>) item;
+      }
+    }
+
+    /**
+     * Waits for the thread to deliver the queued events and terminate, unless
+     * called by the thread itself, for example by the listener.
+     */
+    void awaitTermination() {
+      if (Thread.currentThread() == thread) {
+        return;
+      }
+      boolean isInterrupted = false;
+      while (thread.isAlive()) {
+        try {
+          thread.join();
+        } catch (InterruptedException e) {
+          isInterrupted = true;
+        }
+      }
+      if (isInterrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    /**
+     * Delivers batches of events until the dispatcher is closed and the queue
+     * is empty, or the thread is interrupted.
+     */
+    @Override
+    public void run() {
+      try {
+        deliverUntilClosed();
+      } catch (InterruptedException e) {
+        //the thread was interrupted by its owner, stop delivering
+      } finally {
+        if (!isStopped) {
+          abort();
+        }
+      }
+    }
+
+    /**
+     * Stops taking events before the dispatcher is closed, dropping the queued
+     * events so that blocked and subsequent dispatches fail rather than wait.
+     */
+    @SuppressWarnings("unchecked")
+    private void abort() {
+      isAborted = true;
+      isStopped = true;
+      List<Object> items = new ArrayList<Object>();
+      queue.drainTo(items);
+      for (Object item : items) {
+        if (item == CLOSE_SIGNAL) {
+          continue;
+        }
+        droppedCount.incrementAndGet();
+        if (item instanceof PendingEvent) {
+          discard((PendingEvent<K, V>) item);
+        }
+      }
+    }
+
+    /**
+     * Delivers batches of events until the dispatcher is closed and the queue
+     * is empty.
+     *
+     * @throws InterruptedException if the thread is interrupted
+     */
+    private void deliverUntilClosed() throws InterruptedException {
+      List<Object> items = new ArrayList<Object>();
+      while (true) {
+        Object item = isClosed ? queue.poll() : queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (item == null || item == CLOSE_SIGNAL) {
+          if (isClosed) {
+            //deliver the events of dispatches that raced with the close
+            isStopped = true;
+            if (queue.isEmpty()) {
+              return;
+            }
+          }
+          continue;
+        }
+
+        items.add(item);
+        long deadline = System.nanoTime() + maxBatchLatencyNanos;
+        while (items.size() < maxBatchSize) {
+          queue.drainTo(items, maxBatchSize - items.size());
+          long remaining = deadline - System.nanoTime();
+          if (items.size() >= maxBatchSize || remaining <= 0 || isClosed) {
+            break;
+          }
+          item = queue.poll(remaining, TimeUnit.NANOSECONDS);
+          if (item == null) {
+            break;
+          }
+          items.add(item);
+        }
+
+        List<CacheEntryEvent<? extends K, ? extends V>> batch =
+            new ArrayList<CacheEntryEvent<? extends K, ? extends V>>(items.size());
+        for (Object queued : items) {
+          if (queued == CLOSE_SIGNAL) {
+            continue;
+          }
+          CacheEntryEvent<? extends K, ? extends V> event = resolve(queued);
+          if (event != null) {
+            batch.add(event);
+          }
+        }
+        items.clear();
+        if (!batch.isEmpty()) {
+          deliver(batch);
+        }
+      }
+    }
+  }
+
+  /**
+   * The undelivered events for a key, merged into the single event that
+   * describes their net effect: the first old value and the last value, or
+   * for a removal or expiry, the value last removed or expired.
+   *
+   * @param <K> the type of key
+   * @param <V> the type of value
+   */
+  private static final class PendingEvent<K, V> {
+
+    private final Cache<?, ?> source;
+
+    private final K key;
+
+    private final EventType firstEventType;
+
+    private final V firstOldValue;
+
+    private final boolean isFirstOldValueAvailable;
+
+    private EventType lastEventType;
+
+    private V lastValue;
+
+    private V lastOldValue;
+
+    PendingEvent(CacheEntryEvent<? extends K, ? extends V> event) {
+      this.source = event.getSource();
+      this.key = event.getKey();
+      this.firstEventType = event.getEventType();
+      this.firstOldValue = event.getOldValue();
+      this.isFirstOldValueAvailable = event.isOldValueAvailable();
+      this.lastEventType = event.getEventType();
+      this.lastValue = event.getValue();
+      this.lastOldValue = event.getOldValue();
+    }
+
+    /**
+     * Merges a subsequent event for the key.
+     *
+     * @param event the event
+     */
+    void merge(CacheEntryEvent<? extends K, ? extends V> event) {
+      lastEventType = event.getEventType();
+      lastValue = event.getValue();
+      lastOldValue = event.getOldValue();
+    }
+
+    /**
+     * Creates the event describing the net effect of the merged events: the
+     * entry was created if it didn't exist before the first event, and was
+     * updated, removed or expired if it did.
+     *
+     * @return the event, or <code>null</code> if an entry was created and then
+     *         removed or expired
+     */
+    CacheEntryEvent<K, V> toEvent() {
+      boolean existedBefore = firstEventType != EventType.CREATED;
+      boolean existsAfter = lastEventType == EventType.CREATED ||
+          lastEventType == EventType.UPDATED;
+
+      if (!existedBefore && !existsAfter) {
+        return null;
+      } else if (!existedBefore) {
+        return new CoalescedCacheEntryEvent<K, V>(source, EventType.CREATED, key,
+            lastValue, null, false);
+      } else if (existsAfter) {
+        return new CoalescedCacheEntryEvent<K, V>(source, EventType.UPDATED, key,
+            lastValue, firstOldValue, isFirstOldValueAvailable);
+      } else {
+        //the value of a removal is the value that was removed
+        return new CoalescedCacheEntryEvent<K, V>(source, lastEventType, key,
+            lastOldValue, firstOldValue, isFirstOldValueAvailable);
+      }
+    }
+  }
+
+  /**
+   * A {@link CacheEntryEvent} describing the net effect of coalesced events.
+   *
+   * @param <K> the type of key
+   * @param <V> the type of value
+   */
+  private static final class CoalescedCacheEntryEvent<K, V> extends CacheEntryEvent<K, V> {
+
+    private static final long serialVersionUID = 201610171801L;
+
+    private final K key;
+
+    private final V value;
+
+    private final V oldValue;
+
+    private final boolean isOldValueAvailable;
+
+    CoalescedCacheEntryEvent(Cache<?, ?> source, EventType eventType, K key, V value,
+                             V oldValue, boolean isOldValueAvailable) {
+      super(source, eventType);
+      this.key = key;
+      this.value = value;
+      this.oldValue = oldValue;
+      this.isOldValueAvailable = isOldValueAvailable;
+    }
+
+    @Override
+    public K getKey() {
+      return key;
+    }
+
+    @Override
+    public V getValue() {
+      return value;
+    }
+
+    @Override
+    public V getOldValue() {
+      return oldValue;
+    }
+
+    @Override
+    public boolean isOldValueAvailable() {
+      return isOldValueAvailable;
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> clazz) {
+      if (clazz.isInstance(this)) {
+        return clazz.cast(this);
+      }
+      throw new IllegalArgumentException("Unwrapping to " + clazz + " is not supported");
+    }
+  }
+
+  /**
+   * Creates daemon delivery threads named after the listener.
+   */
+  private static final class DaemonThreadFactory implements ThreadFactory {
+
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+
+    private final String name;
+
+    DaemonThreadFactory(CacheEntryListener<?, ?> listener) {
+      this.name = "CacheEntryEventDispatcher-" + listener.getClass().getSimpleName() + "-";
+    }
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, name + THREAD_NUMBER.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
@@ -0,0 +1,227 @@
+/**
+ * Copyright 2011-2016 Terracotta, Inc.
+ * Copyright 2011-2016 Oracle America Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.cache.event;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An index of the listeners registered with a {@link javax.cache.Cache} by
+ * their {@link CacheEntryEventFilter}s, with which implementations determine
+ * the listeners interested in a mutation before constructing any
+ * {@link CacheEntryEvent}.
+ * <p>
+ * Listeners are indexed by the {@link EventType}s of their
+ * {@link DeclarativeEventFilter}s, and listeners with equal filters are
+ * grouped, so that for each mutation only the key predicates of the distinct
+ * filters for the {@link EventType} are evaluated, once each.  Listeners
+ * without a filter always match, as do listeners with other
+ * {@link CacheEntryEventFilter}s, which implementations must still evaluate
+ * once the {@link CacheEntryEvent} has been constructed.
+ * <p>
+ * For example:
+ * <pre><code>
+ * if (index.hasMatch(EventType.UPDATED, key)) {
+ *   List&lt;Registration&gt; matches = new ArrayList&lt;Registration&gt;();
+ *   index.collectMatches(EventType.UPDATED, key, matches);
+ *   CacheEntryEvent&lt;K, V&gt; event = createUpdatedEvent(key, value, oldValue);
+ *   ...
+ * }
+ * </code></pre>
+ * <p>
+ * A {@link CacheEntryEventFilterIndex} is thread-safe.  Matching reads an
+ * immutable snapshot of the index, which is rebuilt when listeners are added
+ * or removed.
+ *
+ * @param <T> the type of the indexed listeners, usually an implementation's
+ *            listener registration
+ * @since 1.2
+ * @see DeclarativeEventFilter
+ */
+public class CacheEntryEventFilterIndex<T> {
+
+  /**
+   * The filters of the indexed listeners, in order of registration.
+   */
+  private final Map<T, CacheEntryEventFilter<?, ?>> filters =
+      new LinkedHashMap<T, CacheEntryEventFilter<?, ?>>();
+
+  /**
+   * The groups of listeners with equal filters, by {@link EventType}.
+   */
+  private volatile EnumMap<EventType, Group<T>[]> groups = index(filters);
+
+  /**
+   * Adds a listener to the index, replacing it if it is already indexed.
+   *
+   * @param listener the listener
+   * @param filter   the {@link CacheEntryEventFilter} of the listener, or
+   *                 <code>null</code> if the listener has no filter
+   * @throws NullPointerException if the listener is null
+   */
+  public synchronized void add(T listener, CacheEntryEventFilter<?, ?> filter) {
+    if (listener == null) {
+      throw new NullPointerException("listener can't be null");
+    }
+    filters.put(listener, filter);
+    groups = index(filters);
+  }
+
+  /**
+   * Removes a listener from the index.
+   *
+   * @param listener the listener
+   * @return <code>true</code> if the listener was indexed
+   */
+  public synchronized boolean remove(T listener) {
+    if (!filters.containsKey(listener)) {
+      return false;
+    }
+    filters.remove(listener);
+    groups = index(filters);
+    return true;
+  }
+
+  /**
+   * Determines if any listener may be interested in an event of the specified
+   * {@link EventType} for a key, without the event being constructed.
+   *
+   * @param eventType the {@link EventType}
+   * @param key       the key
+   * @return <code>true</code> if a listener may be interested
+   */
+  public boolean hasMatch(EventType eventType, Object key) {
+    for (Group<T> group : groups.get(eventType)) {
+      if (group.matchesKey(key)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Collects the listeners that may be interested in an event of the
+   * specified {@link EventType} for a key, in order of registration within
+   * each group of listeners with equal filters.
+   *
+   * @param eventType the {@link EventType}
+   * @param key       the key
+   * @param listeners the {@link Collection} to which matching listeners are
+   *                  added
+   * @return the number of matching listeners
+   */
+  public int collectMatches(EventType eventType, Object key,
+                            Collection<? super T> listeners) {
+    int count = 0;
+    for (Group<T> group : groups.get(eventType)) {
+      if (group.matchesKey(key)) {
+        listeners.addAll(group.listeners);
+        count += group.listeners.size();
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Builds the groups of listeners with equal filters for each
+   * {@link EventType}.
+   *
+   * @param filters the filters of the listeners
+   * @param <T>     the type of the listeners
+   * @return the groups by {@link EventType}
+   */
+  @SuppressWarnings("unchecked")
+  private static <T> EnumMap<EventType, Group<T>[]> index(
+      Map<T, CacheEntryEventFilter<?, ?>> filters) {
+    Map<Object, Group<T>> groupsByFilter = new LinkedHashMap<Object, Group<T>>();
+    for (Map.Entry<T, CacheEntryEventFilter<?, ?>> entry : filters.entrySet()) {
+      CacheEntryEventFilter<?, ?> filter = entry.getValue();
+      //only declarative filters are comparable; group other filters by identity
+      Object groupKey = filter instanceof DeclarativeEventFilter || filter == null
+          ? filter : new IdentityKey(filter);
+      Group<T> group = groupsByFilter.get(groupKey);
+      if (group == null) {
+        group = new Group<T>(filter instanceof DeclarativeEventFilter
+            ? (DeclarativeEventFilter<?, ?>) filter : null);
+        groupsByFilter.put(groupKey, group);
+      }
+      group.listeners.add(entry.getKey());
+    }
+
+    EnumMap<EventType, Group<T>[]> index = new EnumMap<EventType, Group<T>[]>(EventType.class);
+    for (EventType eventType : EventType.values()) {
+      List<Group<T>> matching = new ArrayList<Group<T>>();
+      for (Group<T> group : groupsByFilter.values()) {
+        if (group.filter == null || group.filter.getEventTypes().contains(eventType)) {
+          matching.add(group);
+        }
+      }
+      index.put(eventType, matching.toArray((Group<T>[]) new Group<?>[matching.size()]));
+    }
+    return index;
+  }
+
+  /**
+   * Listeners with equal filters.
+   *
+   * @param <T> the type of the listeners
+   */
+  private static final class Group<T> {
+
+    /**
+     * The {@link DeclarativeEventFilter}, or null if the listeners have no
+     * filter or another kind of filter.
+     */
+    private final DeclarativeEventFilter<?, ?> filter;
+
+    private final List<T> listeners = new ArrayList<T>();
+
+    Group(DeclarativeEventFilter<?, ?> filter) {
+      this.filter = filter;
+    }
+
+    boolean matchesKey(Object key) {
+      return filter == null || filter.matchesKey(key);
+    }
+  }
+
+  /**
+   * Compares filters by identity.
+   */
+  private static final class IdentityKey {
+
+    private final Object object;
+
+    IdentityKey(Object object) {
+      this.object = object;
+    }
+
+    @Override
+    public int hashCode() {
+      return System.identityHashCode(object);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof IdentityKey && ((IdentityKey) other).object == object;
+    }
+  }
+}
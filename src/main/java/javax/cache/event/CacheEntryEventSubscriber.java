@@ -0,0 +1,78 @@
+/**
+ * Copyright 2011-2016 Terracotta, Inc.
+ * Copyright 2011-2016 Oracle America Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.cache.event;
+
+/**
+ * Receives batches of {@link CacheEntryEvent}s from a
+ * {@link javax.cache.Cache} at the rate it requests them, following the
+ * protocol of a Reactive Streams <code>Subscriber</code>.
+ * <p>
+ * Having subscribed with
+ * {@link javax.cache.Cache#subscribe(CacheEntryEventSubscriber,
+ * CacheEntryEventFilter, int, EventOverflowPolicy)}, a subscriber is given a
+ * {@link CacheEntryEventSubscription} with which it signals demand for events.
+ * The cache calls {@link #onNext(Iterable)} with batches of events, in the
+ * order the events occurred, never delivering more events in total than have
+ * been requested.  Events occurring while there is no demand are buffered up
+ * to a bounded capacity.
+ * <p>
+ * The methods of a subscriber are never called concurrently, but need not be
+ * called by the same thread.  They should return promptly, and must not
+ * throw exceptions.
+ * <p>
+ * Applications using a Reactive Streams library may adapt a subscriber to a
+ * <code>Publisher</code> of event batches.
+ *
+ * @param <K> the type of key
+ * @param <V> the type of value
+ * @since 1.2
+ * @see CacheEntryEventSubscription
+ */
+public interface CacheEntryEventSubscriber<K, V> {
+
+  /**
+   * Called once, before any other method, with the
+   * {@link CacheEntryEventSubscription} with which to request events.  No
+   * events are delivered until they are requested.
+   *
+   * @param subscription the {@link CacheEntryEventSubscription}
+   */
+  void onSubscribe(CacheEntryEventSubscription subscription);
+
+  /**
+   * Called with a batch of at least one and at most the outstanding number of
+   * requested events.
+   *
+   * @param events the events, in the order they occurred
+   */
+  void onNext(Iterable<CacheEntryEvent<? extends K, ? extends V>> events);
+
+  /**
+   * Called once when the subscription fails, for example because buffered
+   * events overflowed with {@link EventOverflowPolicy#REJECT}.  No further
+   * methods are called.
+   *
+   * @param throwable the cause of the failure
+   */
+  void onError(Throwable throwable);
+
+  /**
+   * Called once when no further events will be delivered, for example because
+   * the cache was closed.  No further methods are called.
+   */
+  void onComplete();
+}
@@ -0,0 +1,52 @@
+/**
+ * Copyright 2011-2016 Terracotta, Inc.
+ * Copyright 2011-2016 Oracle America Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.cache.event;
+
+/**
+ * The subscription of a {@link CacheEntryEventSubscriber} to the events of a
+ * {@link javax.cache.Cache}, with which the subscriber signals its demand for
+ * events, following the protocol of a Reactive Streams
+ * <code>Subscription</code>.
+ * <p>
+ * The methods of a subscription are thread-safe, and may be called from within
+ * the methods of the {@link CacheEntryEventSubscriber}.
+ *
+ * @since 1.2
+ * @see CacheEntryEventSubscriber
+ */
+public interface CacheEntryEventSubscription {
+
+  /**
+   * Requests that up to the specified number of further events be delivered.
+   * Demand is cumulative; a demand of {@link Long#MAX_VALUE} or more is
+   * treated as unbounded.
+   * <p>
+   * Requesting a number that is not positive fails the subscription with an
+   * {@link IllegalArgumentException} signalled to
+   * {@link CacheEntryEventSubscriber#onError(Throwable)}.
+   *
+   * @param n the number of events
+   */
+  void request(long n);
+
+  /**
+   * Cancels the subscription.  Buffered events are discarded, and the cache
+   * stops delivering events, though events already being delivered may still
+   * be received.  Cancelling a cancelled subscription has no effect.
+   */
+  void cancel();
+}
@@ -0,0 +1,248 @@
+/**
+ * Copyright 2011-2016 Terracotta, Inc.
+ * Copyright 2011-2016 Oracle America Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.cache.event;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * A {@link CacheEntryEventFilter} defined declaratively by the
+ * {@link EventType}s, and optionally the class or {@link String} prefix of the
+ * keys, of the events it passes.
+ * <p>
+ * As a {@link DeclarativeEventFilter} depends only on the {@link EventType}
+ * and key of an event, implementations may evaluate it with
+ * {@link #matches(EventType, Object)} before constructing a
+ * {@link CacheEntryEvent}, and skip constructing the event when no listener
+ * matches.  As it is also comparable with {@link #equals(Object)},
+ * implementations may evaluate equal filters of different listeners once per
+ * mutation, for example using a {@link CacheEntryEventFilterIndex}.
+ * Implementations that do not recognize a {@link DeclarativeEventFilter} call
+ * {@link #evaluate(CacheEntryEvent)} like any other filter.
+ * <p>
+ * For example, to listen for the creation and update of entries whose keys
+ * start with "order:":
+ * <pre><code>
+ * DeclarativeEventFilter&lt;String, Order&gt; filter = DeclarativeEventFilter
+ *     .&lt;String, Order&gt;forEventTypes(EventType.CREATED, EventType.UPDATED)
+ *     .withKeyPrefix("order:");
+ *
+ * cache.registerCacheEntryListener(new MutableCacheEntryListenerConfiguration
+ *     &lt;String, Order&gt;(listenerFactory, FactoryBuilder.factoryOf(filter), false, false));
+ * </code></pre>
+ * <p>
+ * A {@link DeclarativeEventFilter} is immutable.
+ *
+ * @param <K> the type of key
+ * @param <V> the type of value
+ * @since 1.2
+ * @see CacheEntryEventFilterIndex
+ */
+public final class DeclarativeEventFilter<K, V>
+    implements CacheEntryEventFilter<K, V>, Serializable {
+
+  /**
+   * The serialVersionUID required for {@link java.io.Serializable}.
+   */
+  public static final long serialVersionUID = 201610171901L;
+
+  /**
+   * The {@link EventType}s of the events that pass the filter.
+   */
+  private final EnumSet<EventType> eventTypes;
+
+  /**
+   * The class of which keys must be instances, or null for any key.
+   */
+  private final Class<?> keyClass;
+
+  /**
+   * The prefix with which {@link String} keys must start, or null for any key.
+   */
+  private final String keyPrefix;
+
+  /**
+   * Constructs a {@link DeclarativeEventFilter}.
+   *
+   * @param eventTypes the {@link EventType}s of the events that pass
+   * @param keyClass   the class of which keys must be instances, or null
+   * @param keyPrefix  the prefix with which keys must start, or null
+   */
+  private DeclarativeEventFilter(EnumSet<EventType> eventTypes, Class<?> keyClass,
+                                 String keyPrefix) {
+    this.eventTypes = eventTypes;
+    this.keyClass = keyClass;
+    this.keyPrefix = keyPrefix;
+  }
+
+  /**
+   * Obtains a {@link DeclarativeEventFilter} passing the events of the
+   * specified {@link EventType}s.
+   *
+   * @param eventType  an {@link EventType} of the events that pass
+   * @param eventTypes further {@link EventType}s of the events that pass
+   * @param <K>        the type of key
+   * @param <V>        the type of value
+   * @return a {@link DeclarativeEventFilter}
+   * @throws NullPointerException if any of the {@link EventType}s is null
+   */
+  public static <K, V> DeclarativeEventFilter<K, V> forEventTypes(EventType eventType,
+                                                                  EventType... eventTypes) {
+    return new DeclarativeEventFilter<K, V>(EnumSet.of(eventType, eventTypes), null, null);
+  }
+
+  /**
+   * Obtains a {@link DeclarativeEventFilter} passing the events of all
+   * {@link EventType}s.
+   *
+   * @param <K> the type of key
+   * @param <V> the type of value
+   * @return a {@link DeclarativeEventFilter}
+   */
+  public static <K, V> DeclarativeEventFilter<K, V> forAllEventTypes() {
+    return new DeclarativeEventFilter<K, V>(EnumSet.allOf(EventType.class), null, null);
+  }
+
+  /**
+   * Obtains a {@link DeclarativeEventFilter} that additionally requires keys to
+   * be instances of a class.
+   *
+   * @param keyClass the class of which keys must be instances
+   * @return a {@link DeclarativeEventFilter}
+   * @throws NullPointerException if the keyClass is null
+   */
+  public DeclarativeEventFilter<K, V> withKeyClass(Class<?> keyClass) {
+    if (keyClass == null) {
+      throw new NullPointerException("keyClass can't be null");
+    }
+    return new DeclarativeEventFilter<K, V>(eventTypes, keyClass, keyPrefix);
+  }
+
+  /**
+   * Obtains a {@link DeclarativeEventFilter} that additionally requires keys to
+   * be {@link String}s starting with a prefix.
+   *
+   * @param keyPrefix the prefix with which keys must start
+   * @return a {@link DeclarativeEventFilter}
+   * @throws NullPointerException if the keyPrefix is null
+   */
+  public DeclarativeEventFilter<K, V> withKeyPrefix(String keyPrefix) {
+    if (keyPrefix == null) {
+      throw new NullPointerException("keyPrefix can't be null");
+    }
+    return new DeclarativeEventFilter<K, V>(eventTypes, keyClass, keyPrefix);
+  }
+
+  /**
+   * Gets the {@link EventType}s of the events that pass the filter.
+   *
+   * @return an unmodifiable {@link Set} of {@link EventType}s
+   */
+  public Set<EventType> getEventTypes() {
+    return Collections.unmodifiableSet(eventTypes);
+  }
+
+  /**
+   * Gets the class of which keys must be instances.
+   *
+   * @return the class, or <code>null</code> if keys of any class pass
+   */
+  public Class<?> getKeyClass() {
+    return keyClass;
+  }
+
+  /**
+   * Gets the prefix with which {@link String} keys must start.
+   *
+   * @return the prefix, or <code>null</code> if keys are not required to
+   *         start with a prefix
+   */
+  public String getKeyPrefix() {
+    return keyPrefix;
+  }
+
+  /**
+   * Determines if an event with the specified {@link EventType} and key would
+   * pass the filter, without the event being constructed.
+   *
+   * @param eventType the {@link EventType}
+   * @param key       the key
+   * @return <code>true</code> if the event would pass
+   */
+  public boolean matches(EventType eventType, Object key) {
+    return eventTypes.contains(eventType) && matchesKey(key);
+  }
+
+  /**
+   * Determines if the key of an event would pass the filter, regardless of the
+   * {@link EventType}.
+   *
+   * @param key the key
+   * @return <code>true</code> if the key would pass
+   */
+  public boolean matchesKey(Object key) {
+    if (keyClass != null && !keyClass.isInstance(key)) {
+      return false;
+    }
+    return keyPrefix == null ||
+        (key instanceof String && ((String) key).startsWith(keyPrefix));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean evaluate(CacheEntryEvent<? extends K, ? extends V> event) {
+    return matches(event.getEventType(), event.getKey());
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int hashCode() {
+    final int prime = 31;
+    int result = 1;
+    result = prime * result + eventTypes.hashCode();
+    result = prime * result + ((keyClass == null) ? 0 : keyClass.hashCode());
+    result = prime * result + ((keyPrefix == null) ? 0 : keyPrefix.hashCode());
+    return result;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean equals(Object object) {
+    if (this == object) {
+      return true;
+    }
+    if (!(object instanceof DeclarativeEventFilter)) {
+      return false;
+    }
+    DeclarativeEventFilter<?, ?> other = (DeclarativeEventFilter<?, ?>) object;
+    if (!eventTypes.equals(other.eventTypes)) {
+      return false;
+    }
+    if (keyClass == null ? other.keyClass != null : !keyClass.equals(other.keyClass)) {
+      return false;
+    }
+    return keyPrefix == null ? other.keyPrefix == null : keyPrefix.equals(other.keyPrefix);
+  }
+}
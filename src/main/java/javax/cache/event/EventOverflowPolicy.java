@@ -0,0 +1,53 @@
+/**
+ * Copyright 2011-2016 Terracotta, Inc.
+ * Copyright 2011-2016 Oracle America Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.cache.event;
+
+/**
+ * The action taken by a {@link CacheEntryEventDispatcher} when an event is
+ * dispatched while its queue is full.
+ *
+ * @since 1.2
+ * @see CacheEntryEventDispatcher
+ */
+public enum EventOverflowPolicy {
+
+  /**
+   * Blocks the dispatching thread, and therefore the cache operation that
+   * caused the event, until there is space in the queue.  No events are lost,
+   * but slow listeners slow down cache mutations.
+   */
+  BLOCK,
+
+  /**
+   * Discards the event being dispatched.
+   */
+  DROP_NEWEST,
+
+  /**
+   * Discards the oldest queued event to make space for the event being
+   * dispatched.
+   */
+  DROP_OLDEST,
+
+  /**
+   * Discards the event being dispatched and throws a
+   * {@link CacheEntryListenerException} to the dispatching thread.  As
+   * listeners are only called after the cache has been mutated, the mutation
+   * is not affected.
+   */
+  REJECT
+}
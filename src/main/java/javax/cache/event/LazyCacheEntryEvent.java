@@ -0,0 +1,282 @@
+/**
+ * Copyright 2011-2016 Terracotta, Inc.
+ * Copyright 2011-2016 Oracle America Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.cache.event;
+
+import javax.cache.Cache;
+import javax.cache.serialization.Serializer;
+import java.io.ObjectStreamException;
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link CacheEntryEvent} whose values are held in their serialized form and
+ * deserialized only when first requested.
+ * <p>
+ * Implementations that store values in serialized form, for example off-heap
+ * using a {@link Serializer}, may notify listeners with a
+ * {@link LazyCacheEntryEvent} rather than deserializing and copying the value
+ * and old value of every event up front.  Listeners that only forward values,
+ * for example to a log or another system, may use
+ * {@link #getSerializedValue()} and {@link #getSerializedOldValue()} to avoid
+ * deserializing them at all.  Values are deserialized when first requested
+ * and then retained, although threads that request a value concurrently for
+ * the first time may each deserialize it.
+ * <p>
+ * The implementation must provide buffers whose contents remain unchanged for
+ * the lifetime of the event, for example by copying off-heap bytes into a heap
+ * buffer, as a listener may request the values at any time.
+ * <p>
+ * A {@link LazyCacheEntryEvent} is thread-safe.  When serialized, it is
+ * replaced by an event holding its deserialized key and values, as neither the
+ * serialized forms nor the {@link Serializer} are themselves serializable.
+ *
+ * @param <K> the type of key
+ * @param <V> the type of value
+ * @since 1.2
+ * @see Serializer
+ */
+public class LazyCacheEntryEvent<K, V> extends CacheEntryEvent<K, V> {
+
+  /**
+   * The serialVersionUID required for {@link java.io.Serializable}.
+   */
+  private static final long serialVersionUID = 201610172001L;
+
+  /**
+   * Indicates a value that has not yet been deserialized.
+   */
+  private static final Object NOT_DESERIALIZED = new Object();
+
+  private final K key;
+
+  private final transient ByteBuffer serializedValue;
+
+  private final transient ByteBuffer serializedOldValue;
+
+  private final transient Serializer<V> valueSerializer;
+
+  private transient volatile Object value = NOT_DESERIALIZED;
+
+  private transient volatile Object oldValue = NOT_DESERIALIZED;
+
+  /**
+   * Constructs a {@link LazyCacheEntryEvent}.
+   *
+   * @param source             the cache that originated the event
+   * @param eventType          the event type for this event
+   * @param key                the key of the entry
+   * @param serializedValue    a buffer whose remaining bytes are the serialized
+   *                           value, or <code>null</code> if the value is not
+   *                           available, as for removed and expired entries
+   * @param serializedOldValue a buffer whose remaining bytes are the
+   *                           serialized old value, or <code>null</code> if the
+   *                           old value is not available
+   * @param valueSerializer    the {@link Serializer} with which to deserialize
+   *                           the values
+   * @throws NullPointerException if the valueSerializer is null
+   */
+  public LazyCacheEntryEvent(Cache<K, V> source, EventType eventType, K key,
+                             ByteBuffer serializedValue,
+                             ByteBuffer serializedOldValue,
+                             Serializer<V> valueSerializer) {
+    super(source, eventType);
+    if (valueSerializer == null) {
+      throw new NullPointerException("valueSerializer can't be null");
+    }
+    this.key = key;
+    this.serializedValue = serializedValue == null ? null : serializedValue.asReadOnlyBuffer();
+    this.serializedOldValue = serializedOldValue == null ? null
+        : serializedOldValue.asReadOnlyBuffer();
+    this.valueSerializer = valueSerializer;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public K getKey() {
+    return key;
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The value is deserialized when first requested.  Should the serialized
+   * value not be available for a {@link EventType#REMOVED} or
+   * {@link EventType#EXPIRED} event, the old value is returned.
+   */
+  @Override
+  public V getValue() {
+    if (serializedValue == null) {
+      EventType eventType = getEventType();
+      return eventType == EventType.REMOVED || eventType == EventType.EXPIRED
+          ? getOldValue() : null;
+    }
+    Object result = value;
+    if (result == NOT_DESERIALIZED) {
+      result = valueSerializer.deserialize(serializedValue.duplicate());
+      value = result;
+    }
+    return cast(result);
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The old value is deserialized when first requested.
+   */
+  @Override
+  public V getOldValue() {
+    if (serializedOldValue == null) {
+      return null;
+    }
+    Object result = oldValue;
+    if (result == NOT_DESERIALIZED) {
+      result = valueSerializer.deserialize(serializedOldValue.duplicate());
+      oldValue = result;
+    }
+    return cast(result);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean isOldValueAvailable() {
+    return serializedOldValue != null;
+  }
+
+  /**
+   * Gets the serialized form of the value, without deserializing it.
+   *
+   * @return a read-only {@link ByteBuffer} whose remaining bytes are the
+   *         serialized value, or <code>null</code> if the value is not
+   *         available
+   */
+  public ByteBuffer getSerializedValue() {
+    return serializedValue == null ? null : serializedValue.duplicate();
+  }
+
+  /**
+   * Gets the serialized form of the old value, without deserializing it.
+   *
+   * @return a read-only {@link ByteBuffer} whose remaining bytes are the
+   *         serialized old value, or <code>null</code> if the old value is not
+   *         available
+   */
+  public ByteBuffer getSerializedOldValue() {
+    return serializedOldValue == null ? null : serializedOldValue.duplicate();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public <T> T unwrap(Class<T> clazz) {
+    if (clazz.isInstance(this)) {
+      return clazz.cast(this);
+    }
+    throw new IllegalArgumentException("Unwrapping to " + clazz + " is not supported");
+  }
+
+  /**
+   * Replaces this event with one holding the deserialized values when it is
+   * serialized.
+   *
+   * @return the event to serialize in place of this event
+   * @throws ObjectStreamException never
+   */
+  private Object writeReplace() throws ObjectStreamException {
+    return new ResolvedCacheEntryEvent<K, V>(getSource(), getEventType(), key,
+        serializedValue == null ? null : getValue(), getOldValue(), isOldValueAvailable());
+  }
+
+  /**
+   * Casts a deserialized value.
+   *
+   * @param object the deserialized value
+   * @return the value
+   */
+  @SuppressWarnings("unchecked")
+  private V cast(Object object) {
+    return (V) object;
+  }
+
+  /**
+   * The serialized form of a {@link LazyCacheEntryEvent}, holding its
+   * deserialized key and values.
+   *
+   * @param <K> the type of key
+   * @param <V> the type of value
+   */
+  private static final class ResolvedCacheEntryEvent<K, V> extends CacheEntryEvent<K, V> {
+
+    /**
+     * The serialVersionUID required for {@link java.io.Serializable}.
+     */
+    private static final long serialVersionUID = 201610172002L;
+
+    private final K key;
+
+    private final V value;
+
+    private final V oldValue;
+
+    private final boolean isOldValueAvailable;
+
+    ResolvedCacheEntryEvent(Cache<?, ?> source, EventType eventType, K key,
+                            V value, V oldValue, boolean isOldValueAvailable) {
+      super(source, eventType);
+      this.key = key;
+      this.value = value;
+      this.oldValue = oldValue;
+      this.isOldValueAvailable = isOldValueAvailable;
+    }
+
+    @Override
+    public K getKey() {
+      return key;
+    }
+
+    @Override
+    public V getValue() {
+      if (value == null) {
+        EventType eventType = getEventType();
+        return eventType == EventType.REMOVED || eventType == EventType.EXPIRED
+            ? oldValue : null;
+      }
+      return value;
+    }
+
+    @Override
+    public V getOldValue() {
+      return oldValue;
+    }
+
+    @Override
+    public boolean isOldValueAvailable() {
+      return isOldValueAvailable;
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> clazz) {
+      if (clazz.isInstance(this)) {
+        return clazz.cast(this);
+      }
+      throw new IllegalArgumentException("Unwrapping to " + clazz + " is not supported");
+    }
+  }
+}
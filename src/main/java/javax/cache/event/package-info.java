@@ -28,6 +28,9 @@
  * Listeners are invoked <strong>after</strong> the cache is updated. If the listener throws
  * an {@link javax.cache.event.CacheEntryCreatedListener} this will propagate back to the caller but it does not affect the cache update
  * as it already completed before the listener was called.
+ * <p>
+ * Implementations may deliver events to asynchronous listeners in bounded,
+ * batched queues using a {@link javax.cache.event.CacheEntryEventDispatcher}.
  * 
  * @author Greg Luck
  * @author Yannis Cosmadopoulos
@@ -0,0 +1,59 @@
+/**
+ * Copyright 2011-2016 Terracotta, Inc.
+ * Copyright 2011-2016 Oracle America Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.cache.eviction;
+
+/**
+ * The algorithms used to select entries for eviction when a bounded cache
+ * exceeds its capacity.
+ * <p>
+ * The algorithm is a preference.  Implementations must honour the configured
+ * capacity bounds, but may use another algorithm that approximates the
+ * requested one, for example a sampled or segmented variant of it.  The
+ * algorithm in use may be determined from the configuration of a cache
+ * obtained using {@link javax.cache.Cache#getConfiguration(Class)}.
+ *
+ * @since 1.2
+ * @see javax.cache.configuration.CompleteConfiguration#getEvictionAlgorithm()
+ */
+public enum EvictionAlgorithm {
+
+  /**
+   * Least Recently Used: evicts the entry that has not been accessed for the
+   * longest time.
+   */
+  LRU,
+
+  /**
+   * Least Frequently Used: evicts the entry that has been accessed the fewest
+   * times.
+   */
+  LFU,
+
+  /**
+   * Window TinyLFU: admits new entries into the main space only if their
+   * estimated access frequency exceeds that of the entry they would replace,
+   * using a small LRU window to absorb bursts.  This approximates the optimal
+   * hit ratio for most workloads.
+   */
+  W_TINY_LFU,
+
+  /**
+   * First In First Out: evicts the entry that was created earliest,
+   * regardless of how it has been accessed.
+   */
+  FIFO
+}
@@ -0,0 +1,47 @@
+/**
+ * Copyright 2011-2016 Terracotta, Inc.
+ * Copyright 2011-2016 Oracle America Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.cache.eviction;
+
+/**
+ * Determines the weight of cache entries, used to bound a cache by a
+ * maximum total weight rather than by a maximum number of entries.
+ * <p>
+ * A weight is typically an estimate of the memory consumed by an entry, such
+ * as its serialized size in bytes, but may be any measure of cost that is
+ * meaningful to an application.
+ * <p>
+ * The weight of an entry is determined when the entry is created or updated and
+ * is not re-evaluated while the value remains unchanged.  Consequently a
+ * {@link Weigher} must be fast, must not have side effects and must not access
+ * the cache.
+ *
+ * @param <K> the type of key
+ * @param <V> the type of value
+ * @since 1.2
+ * @see javax.cache.configuration.CompleteConfiguration#getMaximumWeight()
+ */
+public interface Weigher<K, V> {
+
+  /**
+   * Determines the weight of an entry.
+   *
+   * @param key   the key of the entry
+   * @param value the value of the entry
+   * @return the non-negative weight of the entry
+   */
+  int weigh(K key, V value);
+}
@@ -0,0 +1,59 @@
+/**
+ * Copyright 2011-2016 Terracotta, Inc.
+ * Copyright 2011-2016 Oracle America Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.cache.expiry;
+
+/**
+ * A source of time for a {@link javax.cache.Cache}, used by implementations to
+ * calculate expiry times with an {@link ExpiryPolicy} and to measure the
+ * latencies reported by statistics.
+ * <p>
+ * Implementations obtain the {@link CacheClock} for a
+ * {@link javax.cache.Cache} from
+ * {@link javax.cache.configuration.CompleteConfiguration#getCacheClockFactory()}
+ * and use it in place of {@link System#currentTimeMillis()} and
+ * {@link System#nanoTime()}.  Configuring a {@link CacheClock} allows a cache
+ * to use a cheaper or coarser source of time, to be isolated from adjustments
+ * of the system clock, or to be tested with a manually advanced clock.
+ * <p>
+ * A {@link CacheClock} is called on every cache operation and must therefore
+ * be thread-safe and inexpensive.
+ *
+ * @since 1.2
+ * @see SystemCacheClock
+ * @see MonotonicCacheClock
+ * @see CoarseCacheClock
+ */
+public interface CacheClock {
+
+  /**
+   * Obtains the current time in milliseconds since the Epoc, from which
+   * expiry times are calculated using {@link Duration#getAdjustedTime(long)}.
+   *
+   * @return the current time in milliseconds
+   */
+  long getTimeMillis();
+
+  /**
+   * Obtains the current value of a monotonic source of time in nanoseconds,
+   * with which elapsed times are measured.  As for {@link System#nanoTime()},
+   * the value is only meaningful relative to other values obtained from the
+   * same {@link CacheClock}.
+   *
+   * @return the current value of the time source in nanoseconds
+   */
+  long getTimeNanos();
+}
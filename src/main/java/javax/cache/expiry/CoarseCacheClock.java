@@ -0,0 +1,280 @@
+/**
+ * Copyright 2011-2016 Terracotta, Inc.
+ * Copyright 2011-2016 Oracle America Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.cache.expiry;
+
+import javax.cache.configuration.Factory;
+import javax.cache.configuration.FactoryBuilder;
+import java.io.Serializable;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link CacheClock} that returns times cached by a background thread,
+ * which reads the system clock at a fixed resolution.
+ * <p>
+ * Reading a {@link CoarseCacheClock} takes a couple of volatile reads, making it
+ * suitable for caches that calculate an access expiry time on every read,
+ * at the cost of times that are up to the resolution behind the system
+ * clock.  The time in milliseconds, like that of a {@link MonotonicCacheClock},
+ * advances with {@link System#nanoTime()} and is therefore unaffected by
+ * adjustments of the system clock.
+ * <p>
+ * The cached times are shared by all {@link CoarseCacheClock}s of the same
+ * resolution in a JVM, including deserialized ones, so that at most one
+ * background thread is started per resolution, however many caches or
+ * configurations use a {@link CoarseCacheClock}.  The background thread is
+ * started when a clock is first read, rather than when it is constructed or
+ * deserialized, so that configurations that are never used to create a cache
+ * don't start it.  It is a daemon thread that ignores interrupts and
+ * terminates once no clock of its resolution is referenced.
+ *
+ * @since 1.2
+ * @see CacheClock
+ */
+public final class CoarseCacheClock implements CacheClock, Serializable {
+
+  /**
+   * The serialVersionUID required for {@link java.io.Serializable}.
+   */
+  public static final long serialVersionUID = 201610171403L;
+
+  /**
+   * The default resolution, in milliseconds.
+   */
+  public static final long DEFAULT_RESOLUTION_MILLIS = 10;
+
+  /**
+   * The number of nanoseconds in a millisecond.
+   */
+  private static final long NANOS_PER_MILLI = 1000000L;
+
+  /**
+   * The shared {@link TimeSource}s by resolution in milliseconds.
+   */
+  private static final Map<Long, WeakReference<TimeSource>> TIME_SOURCES =
+      new HashMap<Long, WeakReference<TimeSource>>();
+
+  /**
+   * The interval in milliseconds at which the cached times are updated.
+   */
+  private final long resolutionMillis;
+
+  /**
+   * The shared {@link TimeSource} of the resolution, or null until the clock
+   * is first read.
+   */
+  private transient volatile TimeSource timeSource;
+
+  /**
+   * Constructs a {@link CoarseCacheClock} with the default resolution of
+   * {@value #DEFAULT_RESOLUTION_MILLIS} milliseconds.
+   */
+  public CoarseCacheClock() {
+    this(DEFAULT_RESOLUTION_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Constructs a {@link CoarseCacheClock}.
+   *
+   * @param resolution the interval at which the cached times are updated
+   * @param timeUnit   the {@link TimeUnit} of the resolution
+   * @throws IllegalArgumentException if the resolution is less than a
+   *                                  millisecond
+   */
+  public CoarseCacheClock(long resolution, TimeUnit timeUnit) {
+    this.resolutionMillis = timeUnit.toMillis(resolution);
+    if (resolutionMillis < 1) {
+      throw new IllegalArgumentException("resolution must be at least one millisecond");
+    }
+  }
+
+  /**
+   * Obtains a {@link Factory} for a Coarse {@link CacheClock} with the default
+   * resolution.
+   *
+   * @return a {@link Factory} for a Coarse {@link CacheClock}
+   */
+  public static Factory<CacheClock> factoryOf() {
+    return new FactoryBuilder.SingletonFactory<CacheClock>(new CoarseCacheClock());
+  }
+
+  /**
+   * Obtains a {@link Factory} for a Coarse {@link CacheClock}.
+   *
+   * @param resolution the interval at which the cached times are updated
+   * @param timeUnit   the {@link TimeUnit} of the resolution
+   * @return a {@link Factory} for a Coarse {@link CacheClock}
+   */
+  public static Factory<CacheClock> factoryOf(long resolution, TimeUnit timeUnit) {
+    return new FactoryBuilder.SingletonFactory<CacheClock>(
+        new CoarseCacheClock(resolution, timeUnit));
+  }
+
+  /**
+   * Obtains the interval at which the cached times are updated.
+   *
+   * @return the resolution in milliseconds
+   */
+  public long getResolutionMillis() {
+    return resolutionMillis;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getTimeMillis() {
+    return getTimeSource().timeMillis;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getTimeNanos() {
+    return getTimeSource().timeNanos;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int hashCode() {
+    return (int) (resolutionMillis ^ (resolutionMillis >>> 32));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof CoarseCacheClock &&
+        ((CoarseCacheClock) other).resolutionMillis == resolutionMillis;
+  }
+
+  /**
+   * Obtains the {@link TimeSource} of the clock, starting the clock when it is
+   * first read.
+   *
+   * @return the {@link TimeSource}
+   */
+  private TimeSource getTimeSource() {
+    TimeSource source = timeSource;
+    return source == null ? start() : source;
+  }
+
+  /**
+   * Starts the clock, sharing the {@link TimeSource} of its resolution and
+   * starting it if necessary.
+   *
+   * @return the {@link TimeSource}
+   */
+  private TimeSource start() {
+    synchronized (TIME_SOURCES) {
+      WeakReference<TimeSource> reference = TIME_SOURCES.get(resolutionMillis);
+      TimeSource source = reference == null ? null : reference.get();
+      if (source == null) {
+        source = new TimeSource();
+        TIME_SOURCES.put(resolutionMillis, new WeakReference<TimeSource>(source));
+
+        Thread thread = new Thread(new Ticker(source, resolutionMillis), "CoarseCacheClock");
+        thread.setDaemon(true);
+        thread.start();
+      }
+      timeSource = source;
+      return source;
+    }
+  }
+
+  /**
+   * The cached times shared by the {@link CoarseCacheClock}s of a resolution.
+   */
+  private static final class TimeSource {
+
+    /**
+     * The system time in milliseconds when the source was started.
+     */
+    private final long originMillis;
+
+    /**
+     * The value of {@link System#nanoTime()} when the source was started.
+     */
+    private final long originNanos;
+
+    /**
+     * The cached time in milliseconds.
+     */
+    private volatile long timeMillis;
+
+    /**
+     * The cached time in nanoseconds.
+     */
+    private volatile long timeNanos;
+
+    TimeSource() {
+      this.originMillis = System.currentTimeMillis();
+      this.originNanos = System.nanoTime();
+      tick();
+    }
+
+    /**
+     * Updates the cached times from the system clock.
+     */
+    void tick() {
+      long nanos = System.nanoTime();
+      timeMillis = originMillis + (nanos - originNanos) / NANOS_PER_MILLI;
+      timeNanos = nanos;
+    }
+  }
+
+  /**
+   * Updates a {@link TimeSource} at its resolution until it is no longer
+   * referenced.  The source is weakly referenced so that the thread does not
+   * prevent it from being garbage collected once no clock uses it.  Interrupts
+   * are ignored, as the clocks sharing the source would otherwise silently
+   * stop advancing.
+   */
+  private static final class Ticker implements Runnable {
+
+    private final WeakReference<TimeSource> sourceReference;
+
+    private final long resolutionMillis;
+
+    Ticker(TimeSource source, long resolutionMillis) {
+      this.sourceReference = new WeakReference<TimeSource>(source);
+      this.resolutionMillis = resolutionMillis;
+    }
+
+    @Override
+    public void run() {
+      while (true) {
+        try {
+          Thread.sleep(resolutionMillis);
+        } catch (InterruptedException e) {
+          //keep updating the clock, which other caches may share
+        }
+        TimeSource source = sourceReference.get();
+        if (source == null) {
+          return;
+        }
+        source.tick();
+      }
+    }
+  }
+}
@@ -15,6 +15,8 @@
  * limitations under the License.
  */package javax.cache.expiry;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.concurrent.TimeUnit;
 
@@ -88,7 +90,12 @@ public class Duration implements Serializable {
   public static final Duration ZERO = new Duration(SECONDS, 0);
 
   /**
-   * The unit of time to specify time in. The minimum time unit is milliseconds.
+   * The number of nanoseconds in a millisecond.
+   */
+  private static final long NANOS_PER_MILLI = 1000000L;
+
+  /**
+   * The unit of time to specify time in.
    */
   private final TimeUnit timeUnit;
 
@@ -99,6 +106,19 @@ public class Duration implements Serializable {
    */
   private final long durationAmount;
 
+  /**
+   * The duration in milliseconds, rounded up to a whole millisecond, or
+   * {@code Long.MAX_VALUE} when eternal.  Precomputed to avoid the
+   * {@link TimeUnit} conversion when calculating adjusted times.
+   */
+  private transient long durationMillis;
+
+  /**
+   * The duration in nanoseconds, saturated at {@code Long.MAX_VALUE}, or
+   * {@code Long.MAX_VALUE} when eternal.
+   */
+  private transient long durationNanos;
+
   /**
    * Constructs an eternal duration ({@link #isEternal} is true). Since the duration is immutable
    * the constant {@link #ETERNAL} should be used alternatively.
@@ -106,16 +126,22 @@ public class Duration implements Serializable {
   public Duration() {
     this.timeUnit = null;
     this.durationAmount = 0;
+    precompute();
   }
 
   /**
    * Constructs a duration. The eternal duration ({@link #isEternal} is true) is represented by
    * specifying {@code null} for {@code timeUnit} and {@code 0} for {@code durationAmount}.
    *
-   * @param timeUnit       the unit of time to specify time in. The minimum time unit is milliseconds.
+   * <p>Durations of less than a millisecond may be specified using
+   * {@link TimeUnit#MICROSECONDS} or {@link TimeUnit#NANOSECONDS}.  They are
+   * rounded up to a whole millisecond by {@link #getAdjustedTime(long)} and
+   * are exact in {@link #getAdjustedTimeNanos(long)}.
+   *
+   * @param timeUnit       the unit of time to specify time in.
    * @param durationAmount how long, in the specified units, the cache entries should live.
    * @throws NullPointerException     if timeUnit is null and the {@code durationAmount} is not 0
-   * @throws IllegalArgumentException if durationAmount is less than 0 or a TimeUnit less than milliseconds is specified
+   * @throws IllegalArgumentException if durationAmount is less than 0
    */
   public Duration(TimeUnit timeUnit, long durationAmount) {
     if (timeUnit == null) {
@@ -128,19 +154,13 @@ public class Duration implements Serializable {
       }
 
     } else {
-      switch (timeUnit) {
-        case NANOSECONDS:
-        case MICROSECONDS:
-          throw new IllegalArgumentException("Must specify a TimeUnit of milliseconds or higher.");
-        default:
-          this.timeUnit = timeUnit;
-          break;
-      }
+      this.timeUnit = timeUnit;
       if (durationAmount < 0) {
         throw new IllegalArgumentException("Cannot specify a negative durationAmount.");
       }
       this.durationAmount = durationAmount;
     }
+    precompute();
   }
 
   /**
@@ -167,6 +187,7 @@ public class Duration implements Serializable {
       timeUnit = TimeUnit.MILLISECONDS;
       durationAmount = Math.max(startTime, endTime) - Math.min(startTime, endTime);
     }
+    precompute();
   }
 
   /**
@@ -205,12 +226,40 @@ public class Duration implements Serializable {
     return timeUnit != null && durationAmount == 0;
   }
 
+  /**
+   * Obtains the Duration in milliseconds.  A Duration of less than a
+   * millisecond that is not zero is rounded up to a whole millisecond.
+   *
+   * <p>If this instance represents an eternal duration ({@link #isEternal}
+   * is true), the value {@code Long.MAX_VALUE} is returned.
+   *
+   * @return the Duration in milliseconds
+   * @since 1.2
+   */
+  public long toMillis() {
+    return durationMillis;
+  }
+
+  /**
+   * Obtains the Duration in nanoseconds, saturated at {@code Long.MAX_VALUE}.
+   *
+   * <p>If this instance represents an eternal duration ({@link #isEternal}
+   * is true), the value {@code Long.MAX_VALUE} is returned.
+   *
+   * @return the Duration in nanoseconds
+   * @since 1.2
+   */
+  public long toNanos() {
+    return durationNanos;
+  }
+
   /**
    * Calculates the adjusted time (represented in milliseconds from the Epoc)
    * given a specified time in milliseconds (to be adjusted) by the duration.
    *
    * <p>If this instance represents an eternal duration ({@link #isEternal}
-   * is true), the value {@code Long.MAX_VALUE} is returned.
+   * is true), or the adjusted time would overflow, the value
+   * {@code Long.MAX_VALUE} is returned.
    *
    * @param time the time from which to adjust given the duration
    * @return the adjusted time
@@ -218,9 +267,30 @@ public class Duration implements Serializable {
   public long getAdjustedTime(long time) {
     if (isEternal()) {
       return Long.MAX_VALUE;
-    } else {
-      return time + timeUnit.toMillis(durationAmount);
     }
+    long adjustedTime = time + durationMillis;
+    return adjustedTime < time ? Long.MAX_VALUE : adjustedTime;
+  }
+
+  /**
+   * Calculates the adjusted time in nanoseconds given a specified time in
+   * nanoseconds (to be adjusted) by the duration, for example a time obtained
+   * from {@link System#nanoTime()}.
+   *
+   * <p>If this instance represents an eternal duration ({@link #isEternal}
+   * is true), or the adjusted time would overflow, the value
+   * {@code Long.MAX_VALUE} is returned.
+   *
+   * @param time the time in nanoseconds from which to adjust given the duration
+   * @return the adjusted time in nanoseconds
+   * @since 1.2
+   */
+  public long getAdjustedTimeNanos(long time) {
+    if (isEternal()) {
+      return Long.MAX_VALUE;
+    }
+    long adjustedTime = time + durationNanos;
+    return adjustedTime < time ? Long.MAX_VALUE : adjustedTime;
   }
 
   /**
@@ -241,9 +311,8 @@ public class Duration implements Serializable {
           this.durationAmount == duration.durationAmount) {
         return true;
       } else if (this.timeUnit != null && duration.timeUnit != null) {
-        long time1 = timeUnit.toMillis(durationAmount);
-        long time2 = duration.timeUnit.toMillis(duration.durationAmount);
-        return time1 == time2;
+        return durationMillis == duration.durationMillis &&
+            durationNanos == duration.durationNanos;
       } else {
         return false;
       }
@@ -255,6 +324,40 @@ public class Duration implements Serializable {
    */
   @Override
   public int hashCode() {
-    return timeUnit == null ? -1 : (int)timeUnit.toMillis(durationAmount);
+    if (timeUnit == null) {
+      return -1;
+    } else if (durationNanos % NANOS_PER_MILLI == 0 || durationNanos == Long.MAX_VALUE) {
+      return (int) durationMillis;
+    } else {
+      return (int) (durationNanos ^ (durationNanos >>> 32));
+    }
+  }
+
+  /**
+   * Precomputes the Duration in milliseconds and nanoseconds.
+   */
+  private void precompute() {
+    if (timeUnit == null) {
+      durationMillis = Long.MAX_VALUE;
+      durationNanos = Long.MAX_VALUE;
+    } else {
+      durationMillis = timeUnit.toMillis(durationAmount);
+      durationNanos = timeUnit.toNanos(durationAmount);
+      if (durationNanos != Long.MAX_VALUE && durationNanos % NANOS_PER_MILLI != 0) {
+        durationMillis++;
+      }
+    }
+  }
+
+  /**
+   * Reconstitutes a {@link Duration}, precomputing the transient durations.
+   *
+   * @param in the {@link ObjectInputStream} from which to read the Duration
+   * @throws IOException            if the Duration could not be read
+   * @throws ClassNotFoundException if a class of the Duration is not found
+   */
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    precompute();
   }
 }
@@ -23,11 +23,15 @@ package javax.cache.expiry;
  * Each of the functions return a new {@link Duration} that specifies the
  * amount of time that must pass before a cache entry is considered expired.
  * {@link Duration} has constants defined for useful durations.
+ * <p>
+ * To determine the expiry of each entry from its key and value, use a
+ * {@link VariableExpiryPolicy}.
  *
  * @author Brian Oliver
  * @author Greg Luck
  * @since 1.0
  * @see Duration
+ * @see VariableExpiryPolicy
  */
 public interface ExpiryPolicy {
 
@@ -0,0 +1,299 @@
+/**
+ * Copyright 2011-2016 Terracotta, Inc.
+ * Copyright 2011-2016 Oracle America Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.cache.expiry;
+
+import javax.cache.configuration.Factory;
+import javax.cache.configuration.FactoryBuilder;
+import java.io.Serializable;
+
+/**
+ * A {@link VariableExpiryPolicy} that spreads the expiry times of entries
+ * determined by another {@link ExpiryPolicy}, so that entries created together,
+ * for example by {@link javax.cache.Cache#putAll(java.util.Map)} or
+ * {@link javax.cache.Cache#loadAll(java.util.Set, boolean,
+ * javax.cache.integration.CompletionListener)}, don't all expire, and are
+ * reloaded, at the same time.
+ * <p>
+ * Each {@link Duration} returned by the {@link ExpiryPolicy} is shortened by
+ * up to the configured percentage.  The reduction is determined by the hash
+ * code of the key, so that the expiry of an entry is deterministic and
+ * entries never outlive the {@link Duration} of the {@link ExpiryPolicy}.
+ * For example, a spread of 10% of a {@link CreatedExpiryPolicy} of one hour
+ * expires created entries between 54 and 60 minutes after their creation:
+ * <pre><code>
+ * configuration.setExpiryPolicyFactory(JitteredExpiryPolicy.factoryOf(
+ *     new CreatedExpiryPolicy(Duration.ONE_HOUR), 10));
+ * </code></pre>
+ * <p>
+ * Should the {@link ExpiryPolicy} itself be a {@link VariableExpiryPolicy},
+ * the expiry times it determines for each entry are spread in the same way.
+ * Implementations that do not support {@link VariableExpiryPolicy} use the
+ * {@link Duration}s of the {@link ExpiryPolicy} without jitter.
+ *
+ * @since 1.2
+ * @see ExpiryPolicy
+ */
+public final class JitteredExpiryPolicy
+    implements VariableExpiryPolicy<Object, Object>, Serializable {
+
+  /**
+   * The serialVersionUID required for {@link java.io.Serializable}.
+   */
+  public static final long serialVersionUID = 201610171501L;
+
+  /**
+   * The {@link ExpiryPolicy} whose {@link Duration}s are spread.
+   */
+  private final ExpiryPolicy expiryPolicy;
+
+  /**
+   * The maximum percentage by which a {@link Duration} is shortened.
+   */
+  private final int spreadPercentage;
+
+  /**
+   * Constructs a {@link JitteredExpiryPolicy}.
+   * <p>
+   * The {@link ExpiryPolicy} must be {@link Serializable} for the
+   * {@link JitteredExpiryPolicy}, and configurations using it, to be
+   * serialized.
+   *
+   * @param expiryPolicy     the {@link ExpiryPolicy} whose {@link Duration}s
+   *                         are spread
+   * @param spreadPercentage the maximum percentage by which a {@link Duration}
+   *                         is shortened
+   * @throws NullPointerException     if the expiryPolicy is null
+   * @throws IllegalArgumentException if the spreadPercentage is not between
+   *                                  0 and 100
+   */
+  public JitteredExpiryPolicy(ExpiryPolicy expiryPolicy, int spreadPercentage) {
+    if (expiryPolicy == null) {
+      throw new NullPointerException("expiryPolicy can't be null");
+    }
+    if (spreadPercentage < 0 || spreadPercentage > 100) {
+      throw new IllegalArgumentException("spreadPercentage must be between 0 and 100");
+    }
+    this.expiryPolicy = expiryPolicy;
+    this.spreadPercentage = spreadPercentage;
+  }
+
+  /**
+   * Obtains a {@link Factory} for a Jittered {@link ExpiryPolicy}.
+   *
+   * @param expiryPolicy     the {@link ExpiryPolicy} whose {@link Duration}s
+   *                         are spread
+   * @param spreadPercentage the maximum percentage by which a {@link Duration}
+   *                         is shortened
+   * @return a {@link Factory} for a Jittered {@link ExpiryPolicy}
+   */
+  public static Factory<ExpiryPolicy> factoryOf(ExpiryPolicy expiryPolicy,
+                                                int spreadPercentage) {
+    return new FactoryBuilder.SingletonFactory<ExpiryPolicy>(
+        new JitteredExpiryPolicy(expiryPolicy, spreadPercentage));
+  }
+
+  /**
+   * Obtains the {@link ExpiryPolicy} whose {@link Duration}s are spread.
+   *
+   * @return the {@link ExpiryPolicy}
+   */
+  public ExpiryPolicy getExpiryPolicy() {
+    return expiryPolicy;
+  }
+
+  /**
+   * Obtains the maximum percentage by which a {@link Duration} is shortened.
+   *
+   * @return the spread percentage
+   */
+  public int getSpreadPercentage() {
+    return spreadPercentage;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Duration getExpiryForCreation() {
+    return expiryPolicy.getExpiryForCreation();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Duration getExpiryForAccess() {
+    return expiryPolicy.getExpiryForAccess();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Duration getExpiryForUpdate() {
+    return expiryPolicy.getExpiryForUpdate();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getExpiryForCreation(Object key, Object value, long currentTime) {
+    VariableExpiryPolicy<Object, Object> variablePolicy = getVariableExpiryPolicy();
+    if (variablePolicy != null) {
+      return jitter(variablePolicy.getExpiryForCreation(key, value, currentTime), key,
+          currentTime, ETERNAL);
+    }
+    return getExpiryTime(expiryPolicy.getExpiryForCreation(), key, currentTime, ETERNAL);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getExpiryForAccess(Object key, Object value, long currentTime,
+                                 long currentExpiryTime) {
+    VariableExpiryPolicy<Object, Object> variablePolicy = getVariableExpiryPolicy();
+    if (variablePolicy != null) {
+      return jitter(variablePolicy.getExpiryForAccess(key, value, currentTime,
+          currentExpiryTime), key, currentTime, currentExpiryTime);
+    }
+    return getExpiryTime(expiryPolicy.getExpiryForAccess(), key, currentTime,
+        currentExpiryTime);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getExpiryForUpdate(Object key, Object value, long currentTime,
+                                 long currentExpiryTime) {
+    VariableExpiryPolicy<Object, Object> variablePolicy = getVariableExpiryPolicy();
+    if (variablePolicy != null) {
+      return jitter(variablePolicy.getExpiryForUpdate(key, value, currentTime,
+          currentExpiryTime), key, currentTime, currentExpiryTime);
+    }
+    return getExpiryTime(expiryPolicy.getExpiryForUpdate(), key, currentTime,
+        currentExpiryTime);
+  }
+
+  /**
+   * Obtains the {@link ExpiryPolicy} as a {@link VariableExpiryPolicy}, should
+   * it be one.
+   *
+   * @return the {@link VariableExpiryPolicy}, or null if the
+   *         {@link ExpiryPolicy} is not variable
+   */
+  @SuppressWarnings("unchecked")
+  private VariableExpiryPolicy<Object, Object> getVariableExpiryPolicy() {
+    return expiryPolicy instanceof VariableExpiryPolicy
+        ? (VariableExpiryPolicy<Object, Object>) expiryPolicy : null;
+  }
+
+  /**
+   * Determines the jittered expiry time of a {@link Duration} for a key.
+   *
+   * @param duration          the {@link Duration}, or null for no change
+   * @param key               the key
+   * @param currentTime       the current time
+   * @param currentExpiryTime the current expiry time
+   * @return the expiry time
+   */
+  private long getExpiryTime(Duration duration, Object key, long currentTime,
+                             long currentExpiryTime) {
+    if (duration == null) {
+      return currentExpiryTime;
+    } else if (duration.isEternal()) {
+      return ETERNAL;
+    }
+
+    long expiryTime = currentTime + duration.toMillis();
+    if (expiryTime < currentTime) {
+      return ETERNAL;
+    }
+    return jitter(expiryTime, key, currentTime, ETERNAL);
+  }
+
+  /**
+   * Shortens the time remaining until an expiry time for a key.  Eternal,
+   * expired and unchanged expiry times are returned as they are.
+   *
+   * @param expiryTime        the expiry time
+   * @param key               the key
+   * @param currentTime       the current time
+   * @param currentExpiryTime the current expiry time
+   * @return the jittered expiry time
+   */
+  private long jitter(long expiryTime, Object key, long currentTime,
+                      long currentExpiryTime) {
+    if (expiryTime == ETERNAL || expiryTime == currentExpiryTime
+        || expiryTime <= currentTime) {
+      return expiryTime;
+    }
+
+    long millis = expiryTime - currentTime;
+    if (millis > 1 && spreadPercentage > 0) {
+      long reduction = (long) (millis * (spreadPercentage / 100.0) * fraction(key));
+      millis = Math.max(1, millis - reduction);
+    }
+    return currentTime + millis;
+  }
+
+  /**
+   * Determines a fraction between 0 (inclusive) and 1 (exclusive) from the hash
+   * code of a key, mixing its bits so that similar keys are spread evenly.
+   *
+   * @param key the key
+   * @return the fraction
+   */
+  private static double fraction(Object key) {
+    long hash = key == null ? 0 : key.hashCode();
+    hash *= 0x9E3779B97F4A7C15L;
+    hash ^= hash >>> 32;
+    hash *= 0xBF58476D1CE4E5B9L;
+    hash ^= hash >>> 29;
+    return (hash >>> 11) * 0x1.0p-53;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int hashCode() {
+    final int prime = 31;
+    int result = 1;
+    result = prime * result + expiryPolicy.hashCode();
+    result = prime * result + spreadPercentage;
+    return result;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean equals(Object object) {
+    if (this == object) {
+      return true;
+    }
+    if (!(object instanceof JitteredExpiryPolicy)) {
+      return false;
+    }
+    JitteredExpiryPolicy other = (JitteredExpiryPolicy) object;
+    return spreadPercentage == other.spreadPercentage &&
+        expiryPolicy.equals(other.expiryPolicy);
+  }
+}
@@ -0,0 +1,129 @@
+/**
+ * Copyright 2011-2016 Terracotta, Inc.
+ * Copyright 2011-2016 Oracle America Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.cache.expiry;
+
+import javax.cache.configuration.Factory;
+import javax.cache.configuration.FactoryBuilder;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+
+/**
+ * A {@link CacheClock} whose time only advances, derived from
+ * {@link System#nanoTime()}.
+ * <p>
+ * The time in milliseconds starts at the system time when the clock is
+ * created, but thereafter advances with {@link System#nanoTime()}, so that
+ * adjustments of the system clock, for example by NTP or a change of the
+ * date, neither expire entries prematurely nor extend their lifetime.
+ *
+ * @since 1.2
+ * @see CacheClock
+ */
+public final class MonotonicCacheClock implements CacheClock, Serializable {
+
+  /**
+   * The serialVersionUID required for {@link java.io.Serializable}.
+   */
+  public static final long serialVersionUID = 201610171402L;
+
+  /**
+   * The number of nanoseconds in a millisecond.
+   */
+  private static final long NANOS_PER_MILLI = 1000000L;
+
+  /**
+   * The system time in milliseconds when the clock was created.
+   */
+  private transient long originMillis;
+
+  /**
+   * The value of {@link System#nanoTime()} when the clock was created.
+   */
+  private transient long originNanos;
+
+  /**
+   * Constructs a {@link MonotonicCacheClock} starting at the current system
+   * time.
+   */
+  public MonotonicCacheClock() {
+    start();
+  }
+
+  /**
+   * Obtains a {@link Factory} for a Monotonic {@link CacheClock}.
+   *
+   * @return a {@link Factory} for a Monotonic {@link CacheClock}
+   */
+  public static Factory<CacheClock> factoryOf() {
+    return new FactoryBuilder.SingletonFactory<CacheClock>(new MonotonicCacheClock());
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getTimeMillis() {
+    return originMillis + (System.nanoTime() - originNanos) / NANOS_PER_MILLI;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getTimeNanos() {
+    return System.nanoTime();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int hashCode() {
+    return MonotonicCacheClock.class.hashCode();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof MonotonicCacheClock;
+  }
+
+  /**
+   * Starts the clock at the current system time.
+   */
+  private void start() {
+    originMillis = System.currentTimeMillis();
+    originNanos = System.nanoTime();
+  }
+
+  /**
+   * Reconstitutes a {@link MonotonicCacheClock}, starting it at the current
+   * system time of this JVM, as {@link System#nanoTime()} values are not
+   * comparable across JVMs.
+   *
+   * @param in the {@link ObjectInputStream} from which to read the clock
+   * @throws IOException            if the clock could not be read
+   * @throws ClassNotFoundException if a class of the clock is not found
+   */
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    start();
+  }
+}
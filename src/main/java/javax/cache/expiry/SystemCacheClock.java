@@ -0,0 +1,80 @@
+/**
+ * Copyright 2011-2016 Terracotta, Inc.
+ * Copyright 2011-2016 Oracle America Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.cache.expiry;
+
+import javax.cache.configuration.Factory;
+import javax.cache.configuration.FactoryBuilder;
+import java.io.Serializable;
+
+/**
+ * A {@link CacheClock} that reads the system clock on every call, using
+ * {@link System#currentTimeMillis()} and {@link System#nanoTime()}.
+ * <p>
+ * This is the default {@link CacheClock}, and gives the behavior of caches
+ * that do not support configuring a {@link CacheClock}.
+ *
+ * @since 1.2
+ * @see CacheClock
+ */
+public final class SystemCacheClock implements CacheClock, Serializable {
+
+  /**
+   * The serialVersionUID required for {@link java.io.Serializable}.
+   */
+  public static final long serialVersionUID = 201610171401L;
+
+  /**
+   * Obtains a {@link Factory} for a System {@link CacheClock}.
+   *
+   * @return a {@link Factory} for a System {@link CacheClock}
+   */
+  public static Factory<CacheClock> factoryOf() {
+    return new FactoryBuilder.SingletonFactory<CacheClock>(new SystemCacheClock());
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getTimeMillis() {
+    return System.currentTimeMillis();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getTimeNanos() {
+    return System.nanoTime();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int hashCode() {
+    return SystemCacheClock.class.hashCode();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof SystemCacheClock;
+  }
+}
@@ -0,0 +1,358 @@
+/**
+ * Copyright 2011-2016 Terracotta, Inc.
+ * Copyright 2011-2016 Oracle America Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.cache.expiry;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A hierarchical timing wheel that implementations may use to expire cache
+ * entries at the deadlines determined by an {@link ExpiryPolicy}, typically
+ * calculated using {@link Duration#getAdjustedTime(long)}.
+ * <p>
+ * Scheduling, rescheduling and cancelling a deadline take constant time,
+ * regardless of the number of scheduled deadlines, so that a deadline may be
+ * rescheduled on every access to an entry, as required by
+ * {@link TouchedExpiryPolicy} and {@link AccessedExpiryPolicy}.  Deadlines are
+ * held in buckets of increasingly coarse granularity, and cascade into finer
+ * buckets as time advances.  For times in {@link TimeUnit#SECONDS} or finer
+ * units, the finest buckets span about a second and the coarsest about three
+ * days.  For coarser units the finest buckets span a single unit, such as a
+ * minute for {@link TimeUnit#MINUTES}, and the coarsest 2<sup>18</sup> units.
+ * Expired items are collected in batches by
+ * {@link #advance(long, Collection)}.
+ * <p>
+ * Items are expired after their deadline, but up to one bucket of the finest
+ * granularity later than it, depending on how often
+ * {@link #advance(long, Collection)} is called.  This includes items
+ * scheduled with a deadline that has already passed, which are expired by the
+ * next call that advances the wheel to a later bucket.  Implementations must
+ * therefore continue to check the deadline of an entry when it is accessed.
+ * <p>
+ * For example:
+ * <pre><code>
+ * TimerWheel&lt;Key&gt; wheel = new TimerWheel&lt;Key&gt;(TimeUnit.MILLISECONDS, now);
+ *
+ * //on creation of an entry
+ * entry.timer = wheel.schedule(key,
+ *     expiryPolicy.getExpiryForCreation().getAdjustedTime(now));
+ *
+ * //on access of an entry
+ * Duration duration = expiryPolicy.getExpiryForAccess();
+ * if (duration != null) {
+ *   wheel.reschedule(entry.timer, duration.getAdjustedTime(now));
+ * }
+ *
+ * //periodically, or on cache operations
+ * List&lt;Key&gt; expired = new ArrayList&lt;Key&gt;();
+ * wheel.advance(now, expired);
+ * expireAll(expired);
+ * </code></pre>
+ * <p>
+ * A {@link TimerWheel} is not thread-safe.  Implementations must guard it with
+ * a lock, for example the lock of the segment holding the entries.
+ *
+ * @param <T> the type of item scheduled, usually a key or an entry
+ * @since 1.2
+ * @see ExpiryPolicy
+ */
+public class TimerWheel<T> {
+
+  /**
+   * The deadline that is never reached.
+   */
+  public static final long ETERNAL = Long.MAX_VALUE;
+
+  /**
+   * The number of buckets in each level of the wheel.
+   */
+  private static final int[] BUCKETS = {64, 64, 32, 4, 1};
+
+  /**
+   * The number of bits by which the shift of each level exceeds that of the
+   * first level.
+   */
+  private static final int[] LEVEL_SHIFTS = {0, 6, 12, 16, 18};
+
+  /**
+   * The base 2 logarithm of the number of time units in a bucket of the first
+   * level, for each {@link TimeUnit} ordinal. Buckets span 1.07s for
+   * nanoseconds, 1.05s for microseconds, 1.02s for milliseconds and a single
+   * unit for seconds, minutes, hours and days.
+   */
+  private static final int[] BASE_SHIFTS = {30, 20, 10, 0, 0, 0, 0};
+
+  private final Timer<T>[][] wheel;
+
+  private final int[] shifts;
+
+  private long time;
+
+  private int size;
+
+  /**
+   * Constructs a {@link TimerWheel}.
+   *
+   * @param timeUnit    the {@link TimeUnit} of times and deadlines
+   * @param currentTime the current time, in the {@link TimeUnit}
+   * @throws NullPointerException if the timeUnit is null
+   */
+  @SuppressWarnings("unchecked")
+  public TimerWheel(TimeUnit timeUnit, long currentTime) {
+    int baseShift = BASE_SHIFTS[timeUnit.ordinal()];
+    this.shifts = new int[LEVEL_SHIFTS.length];
+    this.wheel = (Timer<T>[][]) new Timer<?>[BUCKETS.length][];
+    for (int level = 0; level < BUCKETS.length; level++) {
+      shifts[level] = baseShift + LEVEL_SHIFTS[level];
+      wheel[level] = (Timer<T>[]) new Timer<?>[BUCKETS[level]];
+      for (int bucket = 0; bucket < BUCKETS[level]; bucket++) {
+        wheel[level][bucket] = new Timer<T>(null);
+      }
+    }
+    this.time = currentTime;
+    this.size = 0;
+  }
+
+  /**
+   * Schedules an item to expire at a deadline.
+   * <p>
+   * An item with an {@link #ETERNAL} deadline is not scheduled, but the
+   * returned {@link Timer} may later be rescheduled with a finite deadline.
+   *
+   * @param item     the item
+   * @param deadline the time at which the item expires
+   * @return the {@link Timer} with which to reschedule or cancel the expiry
+   * @throws NullPointerException if the item is null
+   */
+  public Timer<T> schedule(T item, long deadline) {
+    if (item == null) {
+      throw new NullPointerException("item can't be null");
+    }
+    Timer<T> timer = new Timer<T>(item);
+    reschedule(timer, deadline);
+    return timer;
+  }
+
+  /**
+   * Changes the deadline at which the item of a {@link Timer} expires,
+   * scheduling it again should it have been cancelled or expired.
+   *
+   * @param timer    the {@link Timer}
+   * @param deadline the new time at which the item expires, or
+   *                 {@link #ETERNAL} if it should not expire
+   */
+  public void reschedule(Timer<T> timer, long deadline) {
+    unlink(timer);
+    timer.deadline = deadline;
+    if (deadline != ETERNAL) {
+      link(timer);
+    }
+  }
+
+  /**
+   * Cancels the expiry of the item of a {@link Timer}, for example because the
+   * entry was removed.
+   *
+   * @param timer the {@link Timer}
+   */
+  public void cancel(Timer<T> timer) {
+    unlink(timer);
+    timer.deadline = ETERNAL;
+  }
+
+  /**
+   * Advances the wheel to the current time, collecting the items whose
+   * deadlines have passed and cascading the remaining deadlines into finer
+   * buckets.
+   *
+   * @param currentTime the current time
+   * @param expired     the {@link Collection} to which expired items are added
+   * @return the number of expired items
+   */
+  public int advance(long currentTime, Collection<? super T> expired) {
+    long previousTime = time;
+    time = currentTime;
+    int count = 0;
+    for (int level = 0; level < wheel.length; level++) {
+      long previousTicks = previousTime >> shifts[level];
+      long delta = (currentTime >> shifts[level]) - previousTicks;
+      if (delta <= 0) {
+        break;
+      }
+      count += expire(level, previousTicks, delta, expired);
+    }
+    return count;
+  }
+
+  /**
+   * Gets the number of scheduled items.
+   *
+   * @return the number of scheduled items
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Gets the time to which the wheel was last advanced.
+   *
+   * @return the time
+   */
+  public long getTime() {
+    return time;
+  }
+
+  /**
+   * Expires or reschedules the items in the buckets of a level between the
+   * previous and the current tick.
+   */
+  private int expire(int level, long previousTicks, long delta, Collection<? super T> expired) {
+    Timer<T>[] buckets = wheel[level];
+    int mask = buckets.length - 1;
+    int steps = (int) Math.min(delta + 1, buckets.length);
+    int start = (int) (previousTicks & mask);
+    int count = 0;
+
+    for (int i = start; i < start + steps; i++) {
+      Timer<T> sentinel = buckets[i & mask];
+      Timer<T> timer = sentinel.next;
+      sentinel.next = sentinel;
+      sentinel.previous = sentinel;
+
+      while (timer != sentinel) {
+        Timer<T> next = timer.next;
+        timer.next = null;
+        timer.previous = null;
+        size--;
+        if (timer.deadline - time <= 0) {
+          timer.deadline = ETERNAL;
+          expired.add(timer.item);
+          count++;
+        } else {
+          link(timer);
+        }
+        timer = next;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Adds a {@link Timer} to the bucket for its deadline.
+   */
+  private void link(Timer<T> timer) {
+    Timer<T> sentinel = findBucket(timer.deadline);
+    timer.previous = sentinel.previous;
+    timer.next = sentinel;
+    sentinel.previous.next = timer;
+    sentinel.previous = timer;
+    size++;
+  }
+
+  /**
+   * Removes a {@link Timer} from its bucket, if any.
+   */
+  private void unlink(Timer<T> timer) {
+    if (timer.next != null) {
+      timer.previous.next = timer.next;
+      timer.next.previous = timer.previous;
+      timer.next = null;
+      timer.previous = null;
+      size--;
+    }
+  }
+
+  /**
+   * Determines the sentinel of the bucket for a deadline: the bucket of the
+   * finest level whose span covers the time remaining until the deadline, or
+   * the current bucket of the finest level for a deadline that has passed, so
+   * that it is expired by the next advance.
+   */
+  private Timer<T> findBucket(long deadline) {
+    if (deadline - time < 0) {
+      deadline = time;
+    }
+    long remaining = deadline - time;
+    int last = wheel.length - 1;
+    for (int level = 0; level < last; level++) {
+      if (remaining < (1L << shifts[level + 1])) {
+        long ticks = deadline >> shifts[level];
+        return wheel[level][(int) (ticks & (wheel[level].length - 1))];
+      }
+    }
+    return wheel[last][0];
+  }
+
+  /**
+   * The scheduled expiry of an item, with which the expiry may be rescheduled
+   * or cancelled in constant time.
+   *
+   * @param <T> the type of item
+   */
+  public static final class Timer<T> {
+
+    private final T item;
+
+    private long deadline;
+
+    private Timer<T> previous;
+
+    private Timer<T> next;
+
+    /**
+     * Constructs a {@link Timer}, or a bucket sentinel when the item is null.
+     *
+     * @param item the item
+     */
+    Timer(T item) {
+      this.item = item;
+      this.deadline = ETERNAL;
+      if (item == null) {
+        this.previous = this;
+        this.next = this;
+      }
+    }
+
+    /**
+     * Gets the scheduled item.
+     *
+     * @return the item
+     */
+    public T getItem() {
+      return item;
+    }
+
+    /**
+     * Gets the deadline at which the item expires.
+     *
+     * @return the deadline, or {@link TimerWheel#ETERNAL} if the item is not
+     *         scheduled
+     */
+    public long getDeadline() {
+      return deadline;
+    }
+
+    /**
+     * Determines if the item is scheduled to expire.
+     *
+     * @return <code>true</code> if the item is scheduled
+     */
+    public boolean isScheduled() {
+      return next != null;
+    }
+  }
+}
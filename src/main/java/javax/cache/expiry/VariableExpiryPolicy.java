@@ -0,0 +1,104 @@
+/**
+ * Copyright 2011-2016 Terracotta, Inc.
+ * Copyright 2011-2016 Oracle America Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.cache.expiry;
+
+/**
+ * An {@link ExpiryPolicy} that determines when each cache entry expires from
+ * its key and value, for example from the max-age of a cached response.
+ * <p>
+ * Each of the functions of a {@link VariableExpiryPolicy} is given the key and
+ * value of an entry and the current time, and returns the time at which the
+ * entry expires, as a primitive <code>long</code> in milliseconds since the
+ * Epoc, without allocating a {@link Duration}.  The returned time is
+ * interpreted as follows:
+ * <ul>
+ * <li>{@link #ETERNAL} specifies that the entry never expires</li>
+ * <li>a time that is less than or equal to the current time specifies that
+ * the entry is considered to be expired</li>
+ * <li>the current expiry time of the entry, where provided, specifies no
+ * change to the expiry of the entry</li>
+ * </ul>
+ * <p>
+ * A {@link VariableExpiryPolicy} is configured like any other
+ * {@link ExpiryPolicy}, using
+ * {@link javax.cache.configuration.MutableConfiguration#setExpiryPolicyFactory}.
+ * Implementations that support variable expiry call the functions of this
+ * interface in place of those of {@link ExpiryPolicy}.  Implementations that
+ * do not support it call the {@link Duration} functions inherited from
+ * {@link ExpiryPolicy}, which should return the durations to use instead.
+ * <p>
+ * Should an exception occur while determining the expiry time, an
+ * implementation specific default expiry time will be used.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ * @since 1.2
+ * @see ExpiryPolicy
+ */
+public interface VariableExpiryPolicy<K, V> extends ExpiryPolicy {
+
+  /**
+   * The expiry time of an entry that never expires.  This is the same as the
+   * adjusted time of {@link Duration#ETERNAL}.
+   */
+  long ETERNAL = Long.MAX_VALUE;
+
+  /**
+   * Gets the time at which a newly created Cache.Entry expires.
+   * <p>
+   * This method is called by a caching implementation after a Cache.Entry is
+   * created, but before a Cache.Entry is added to a cache.  If a time less than
+   * or equal to the current time is returned, the new Cache.Entry is
+   * considered to be already expired and will not be added to the Cache.
+   *
+   * @param key         the key of the created entry
+   * @param value       the value of the created entry
+   * @param currentTime the current time, in milliseconds since the Epoc
+   * @return the time at which the created entry expires, or {@link #ETERNAL}
+   */
+  long getExpiryForCreation(K key, V value, long currentTime);
+
+  /**
+   * Gets the time at which an accessed Cache.Entry expires.
+   * <p>
+   * This method is called by a caching implementation after a Cache.Entry is
+   * accessed.  Returning the <code>currentExpiryTime</code> will result in no
+   * change to the expiry of the entry.
+   *
+   * @param key               the key of the accessed entry
+   * @param value             the value of the accessed entry
+   * @param currentTime       the current time, in milliseconds since the Epoc
+   * @param currentExpiryTime the time at which the entry currently expires
+   * @return the time at which the accessed entry expires, or {@link #ETERNAL}
+   */
+  long getExpiryForAccess(K key, V value, long currentTime, long currentExpiryTime);
+
+  /**
+   * Gets the time at which an updated Cache.Entry expires.
+   * <p>
+   * This method is called by a caching implementation after a Cache.Entry is
+   * updated.  Returning the <code>currentExpiryTime</code> will result in no
+   * change to the expiry of the entry.
+   *
+   * @param key               the key of the updated entry
+   * @param value             the new value of the updated entry
+   * @param currentTime       the current time, in milliseconds since the Epoc
+   * @param currentExpiryTime the time at which the entry currently expires
+   * @return the time at which the updated entry expires, or {@link #ETERNAL}
+   */
+  long getExpiryForUpdate(K key, V value, long currentTime, long currentExpiryTime);
+}
@@ -0,0 +1,415 @@
+/**
+ * Copyright 2011-2016 Terracotta, Inc.
+ * Copyright 2011-2016 Oracle America Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.cache.integration;
+
+import javax.cache.configuration.Factory;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A {@link CacheLoader} that combines concurrent calls of
+ * {@link #load(Object)} into a single call of
+ * {@link CacheLoader#loadAll(Iterable)} on another {@link CacheLoader}.
+ * <p>
+ * When a "read-through" {@link javax.cache.Cache} misses many keys
+ * concurrently, each miss loads its key separately.  A
+ * {@link BatchingCacheLoader} instead collects the keys requested while a
+ * batch is open, for up to a maximum delay or until a maximum number of keys
+ * have been requested, and loads them together, completing each caller with
+ * the value of its key.  Concurrent requests for the same key in a batch are
+ * loaded once.
+ * <p>
+ * No threads are created.  The first caller of a batch waits for the batch to
+ * fill and then loads it on behalf of the others, so that a batch is loaded
+ * without delay as soon as it is full.  Under light load callers are delayed
+ * by at most the maximum delay.  For example:
+ * <pre><code>
+ * configuration.setReadThrough(true).setCacheLoaderFactory(
+ *     BatchingCacheLoader.factoryOf(backendLoaderFactory, 500, 2, TimeUnit.MILLISECONDS));
+ * </code></pre>
+ * <p>
+ * Calls of {@link #loadAll(Iterable)} are not batched and are passed directly
+ * to the underlying {@link CacheLoader}.  Should a batch fail, each of its
+ * callers receives the failure.
+ *
+ * @param <K> the type of keys handled by this loader
+ * @param <V> the type of values generated by this loader
+ * @since 1.2
+ * @see CacheLoader
+ */
+public class BatchingCacheLoader<K, V> implements CacheLoader<K, V>, Closeable {
+
+  private final CacheLoader<K, V> loader;
+
+  private final int maxBatchSize;
+
+  private final long maxDelayNanos;
+
+  private final ReentrantLock lock = new ReentrantLock();
+
+  private final Condition batchClosed = lock.newCondition();
+
+  /**
+   * The batch currently accepting keys, or <code>null</code> if none is open.
+   */
+  private Batch<K, V> openBatch;
+
+  private final AtomicLong batchCount = new AtomicLong();
+
+  private final AtomicLong batchedKeyCount = new AtomicLong();
+
+  private final AtomicLong requestCount = new AtomicLong();
+
+  /**
+   * Constructs a {@link BatchingCacheLoader}.
+   *
+   * @param loader       the {@link CacheLoader} used to load batches
+   * @param maxBatchSize the maximum number of keys loaded together
+   * @param maxDelay     the maximum time the first key of a batch waits for
+   *                     other keys
+   * @param timeUnit     the {@link TimeUnit} of the maxDelay
+   * @throws NullPointerException     if the loader or timeUnit is null
+   * @throws IllegalArgumentException if the maxBatchSize is less than 1 or
+   *                                  the maxDelay is negative
+   */
+  public BatchingCacheLoader(CacheLoader<K, V> loader, int maxBatchSize,
+                             long maxDelay, TimeUnit timeUnit) {
+    if (loader == null) {
+      throw new NullPointerException("loader can't be null");
+    }
+    checkArguments(maxBatchSize, maxDelay, timeUnit);
+    this.loader = loader;
+    this.maxBatchSize = maxBatchSize;
+    this.maxDelayNanos = timeUnit.toNanos(maxDelay);
+  }
+
+  /**
+   * Obtains a {@link Factory} for a {@link BatchingCacheLoader}, each loading
+   * batches with a {@link CacheLoader} created by another {@link Factory}.
+   *
+   * @param loaderFactory the {@link Factory} for the {@link CacheLoader} used
+   *                      to load batches
+   * @param maxBatchSize  the maximum number of keys loaded together
+   * @param maxDelay      the maximum time the first key of a batch waits for
+   *                      other keys
+   * @param timeUnit      the {@link TimeUnit} of the maxDelay
+   * @param <K>           the type of keys
+   * @param <V>           the type of values
+   * @return a {@link Factory} for a {@link BatchingCacheLoader}
+   * @throws NullPointerException     if the loaderFactory or timeUnit is null
+   * @throws IllegalArgumentException if the maxBatchSize is less than 1 or
+   *                                  the maxDelay is negative
+   */
+  public static <K, V> Factory<CacheLoader<K, V>> factoryOf(
+      Factory<? extends CacheLoader<K, V>> loaderFactory, int maxBatchSize,
+      long maxDelay, TimeUnit timeUnit) {
+    if (loaderFactory == null) {
+      throw new NullPointerException("loaderFactory can't be null");
+    }
+    checkArguments(maxBatchSize, maxDelay, timeUnit);
+    return new BatchingFactory<K, V>(loaderFactory, maxBatchSize, timeUnit.toNanos(maxDelay));
+  }
+
+  /**
+   * Validates the arguments of a {@link BatchingCacheLoader}.
+   *
+   * @param maxBatchSize the maximum number of keys loaded together
+   * @param maxDelay     the maximum time the first key of a batch waits for
+   *                     other keys
+   * @param timeUnit     the {@link TimeUnit} of the maxDelay
+   * @throws NullPointerException     if the timeUnit is null
+   * @throws IllegalArgumentException if the maxBatchSize is less than 1 or
+   *                                  the maxDelay is negative
+   */
+  private static void checkArguments(int maxBatchSize, long maxDelay, TimeUnit timeUnit) {
+    if (timeUnit == null) {
+      throw new NullPointerException("timeUnit can't be null");
+    }
+    if (maxBatchSize < 1 || maxDelay < 0) {
+      throw new IllegalArgumentException("maxBatchSize must be at least 1 and maxDelay " +
+          "can't be negative");
+    }
+  }
+
+  /**
+   * Loads a value as part of a batch of keys requested concurrently.
+   *
+   * @param key the key identifying the object being loaded
+   * @return The value for the entry that is to be stored in the cache or
+   *         <code>null</code> if the object can't be loaded
+   * @throws CacheLoaderException if the batch fails to load, or if
+   *                              interrupted while waiting for the batch
+   */
+  @Override
+  public V load(K key) throws CacheLoaderException {
+    requestCount.incrementAndGet();
+
+    Batch<K, V> batch = null;
+    CompletableCacheFuture<V> future;
+    boolean isLeader = false;
+    try {
+      lock.lock();
+      try {
+        batch = openBatch;
+        if (batch == null) {
+          batch = new Batch<K, V>();
+          openBatch = batch;
+          isLeader = true;
+        }
+        future = batch.futures.get(key);
+        if (future == null) {
+          future = new CompletableCacheFuture<V>();
+          batch.futures.put(key, future);
+          if (batch.futures.size() >= maxBatchSize) {
+            openBatch = null;
+            batchClosed.signalAll();
+          }
+        }
+        if (isLeader) {
+          awaitBatch(batch);
+        }
+      } finally {
+        if (isLeader && openBatch == batch) {
+          openBatch = null;
+        }
+        lock.unlock();
+      }
+    } finally {
+      //the other callers of the batch depend on the first caller loading it
+      if (isLeader) {
+        loadBatch(batch);
+      }
+    }
+    return await(future);
+  }
+
+  /**
+   * Waits for a batch to fill or for the maximum delay to elapse, and then
+   * closes the batch, called under lock by the first caller of the batch.
+   *
+   * @param batch the {@link Batch}
+   */
+  private void awaitBatch(Batch<K, V> batch) {
+    assert lock.isHeldByCurrentThread();
+    try {
+      long remaining = maxDelayNanos;
+      while (openBatch == batch && remaining > 0) {
+        remaining = batchClosed.awaitNanos(remaining);
+      }
+    } catch (InterruptedException e) {
+      //the batch must still be loaded for the other callers
+      Thread.currentThread().interrupt();
+    }
+    if (openBatch == batch) {
+      openBatch = null;
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The keys are loaded directly by the underlying {@link CacheLoader}.
+   */
+  @Override
+  public Map<K, V> loadAll(Iterable<? extends K> keys) throws CacheLoaderException {
+    return loader.loadAll(keys);
+  }
+
+  /**
+   * Closes the underlying {@link CacheLoader} if it is {@link Closeable}.
+   *
+   * @throws IOException if the underlying {@link CacheLoader} fails to close
+   */
+  @Override
+  public void close() throws IOException {
+    if (loader instanceof Closeable) {
+      ((Closeable) loader).close();
+    }
+  }
+
+  /**
+   * Gets the number of batches loaded.
+   *
+   * @return the number of batches
+   */
+  public long getBatchCount() {
+    return batchCount.get();
+  }
+
+  /**
+   * Gets the number of distinct keys loaded in batches.
+   *
+   * @return the number of batched keys
+   */
+  public long getBatchedKeyCount() {
+    return batchedKeyCount.get();
+  }
+
+  /**
+   * Gets the number of calls of {@link #load(Object)}.
+   *
+   * @return the number of single key loads requested
+   */
+  public long getRequestCount() {
+    return requestCount.get();
+  }
+
+  /**
+   * Loads a closed batch and completes the futures of its keys.  The futures
+   * are always completed, whatever the underlying {@link CacheLoader} throws,
+   * so that the other callers of the batch never wait indefinitely.
+   *
+   * @param batch the {@link Batch}
+   */
+  private void loadBatch(Batch<K, V> batch) {
+    Map<K, V> values = null;
+    Throwable failure = null;
+    try {
+      batchCount.incrementAndGet();
+      batchedKeyCount.addAndGet(batch.futures.size());
+      values = loader.loadAll(batch.futures.keySet());
+    } catch (Throwable t) {
+      failure = t;
+    } finally {
+      complete(batch, values, failure);
+    }
+    if (failure instanceof Error) {
+      throw (Error) failure;
+    }
+  }
+
+  /**
+   * Completes the futures of a batch with the loaded values, or with the
+   * failure of the batch.
+   *
+   * @param batch   the {@link Batch}
+   * @param values  the loaded values, or <code>null</code>
+   * @param failure the failure, or <code>null</code> if the batch was loaded
+   */
+  private void complete(Batch<K, V> batch, Map<K, V> values, Throwable failure) {
+    Exception exception = null;
+    if (failure instanceof Exception) {
+      exception = (Exception) failure;
+    } else if (failure != null) {
+      exception = new CacheLoaderException("Failed to load a batch", failure);
+    }
+    for (Map.Entry<K, CompletableCacheFuture<V>> entry : batch.futures.entrySet()) {
+      if (exception == null) {
+        entry.getValue().complete(values == null ? null : values.get(entry.getKey()));
+      } else {
+        entry.getValue().completeExceptionally(exception);
+      }
+    }
+  }
+
+  /**
+   * Waits for the value of a key in a batch.
+   *
+   * @param future the {@link CompletableCacheFuture} for the key
+   * @return the loaded value, or <code>null</code> if it couldn't be loaded
+   * @throws CacheLoaderException if the batch failed or if interrupted
+   */
+  private V await(CompletableCacheFuture<V> future) {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CacheLoaderException("Interrupted while waiting for a batch to load", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof CacheLoaderException) {
+        throw (CacheLoaderException) e.getCause();
+      }
+      throw new CacheLoaderException(e.getCause());
+    }
+  }
+
+  /**
+   * The keys requested together, and the futures of their callers.
+   * <p>
+   * Once a batch is closed its keys are only read, by the thread loading it.
+   *
+   * @param <K> the type of keys
+   * @param <V> the type of values
+   */
+  private static final class Batch<K, V> {
+
+    private final LinkedHashMap<K, CompletableCacheFuture<V>> futures =
+        new LinkedHashMap<K, CompletableCacheFuture<V>>();
+  }
+
+  /**
+   * A {@link Factory} for {@link BatchingCacheLoader}s.
+   *
+   * @param <K> the type of keys
+   * @param <V> the type of values
+   */
+  private static final class BatchingFactory<K, V>
+      implements Factory<CacheLoader<K, V>>, Serializable {
+
+    private static final long serialVersionUID = 201610172118L;
+
+    private final Factory<? extends CacheLoader<K, V>> loaderFactory;
+
+    private final int maxBatchSize;
+
+    private final long maxDelayNanos;
+
+    BatchingFactory(Factory<? extends CacheLoader<K, V>> loaderFactory, int maxBatchSize,
+                    long maxDelayNanos) {
+      this.loaderFactory = loaderFactory;
+      this.maxBatchSize = maxBatchSize;
+      this.maxDelayNanos = maxDelayNanos;
+    }
+
+    @Override
+    public CacheLoader<K, V> create() {
+      return new BatchingCacheLoader<K, V>(loaderFactory.create(), maxBatchSize,
+          maxDelayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public int hashCode() {
+      final int prime = 31;
+      int result = 1;
+      result = prime * result + loaderFactory.hashCode();
+      result = prime * result + maxBatchSize;
+      result = prime * result + (int) (maxDelayNanos ^ (maxDelayNanos >>> 32));
+      return result;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+      if (this == object) {
+        return true;
+      }
+      if (!(object instanceof BatchingFactory)) {
+        return false;
+      }
+      BatchingFactory<?, ?> other = (BatchingFactory<?, ?>) object;
+      return maxBatchSize == other.maxBatchSize && maxDelayNanos == other.maxDelayNanos &&
+          loaderFactory.equals(other.loaderFactory);
+    }
+  }
+}
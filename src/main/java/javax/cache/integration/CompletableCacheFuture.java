@@ -0,0 +1,289 @@
+/**
+ * Copyright 2011-2016 Terracotta, Inc.
+ * Copyright 2011-2016 Oracle America Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.cache.integration;
+
+import javax.cache.CacheFuture;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A CompletableCacheFuture is a {@link CacheFuture} that is explicitly
+ * completed, either with a result or with an exception, by the implementation
+ * of an asynchronous operation.
+ * <p>
+ * For example:
+ * <pre><code>
+ * public CacheFuture&lt;V&gt; getAsync(K key) {
+ *   final CompletableCacheFuture&lt;V&gt; future = new CompletableCacheFuture&lt;V&gt;();
+ *
+ *   store.get(key, new StoreCallback&lt;V&gt;() {
+ *     public void onResult(V value) {
+ *       future.complete(value);
+ *     }
+ *
+ *     public void onFailure(Exception e) {
+ *       future.completeExceptionally(e);
+ *     }
+ *   });
+ *
+ *   return future;
+ * }
+ * </code></pre>
+ * <p>
+ * A CompletableCacheFuture may only be completed once.  Subsequent attempts to
+ * complete it are ignored.
+ *
+ * @param <V> the type of the result
+ * @since 1.2
+ * @see CompletionListenerFuture
+ */
+public class CompletableCacheFuture<V> implements CacheFuture<V> {
+
+  private final Object lock = new Object();
+  private boolean isCompleted;
+  private V value;
+  private Exception exception;
+  private List<CompletionListener> listeners;
+
+  /**
+   * Constructs a CompletableCacheFuture.
+   */
+  public CompletableCacheFuture() {
+    this.isCompleted = false;
+    this.value = null;
+    this.exception = null;
+    this.listeners = null;
+  }
+
+  /**
+   * Completes the operation successfully with the specified result, notifying
+   * the {@link CompletionListener}s that have been added.
+   *
+   * @param value the result of the operation (may be null)
+   * @return <code>true</code> if this call completed the operation,
+   *         <code>false</code> if it was already completed
+   */
+  public boolean complete(V value) {
+    List<CompletionListener> toNotify;
+    synchronized (lock) {
+      if (isCompleted) {
+        return false;
+      }
+      this.value = value;
+      toNotify = markAsCompleted();
+    }
+    notifyListeners(toNotify);
+    return true;
+  }
+
+  /**
+   * Completes the operation with the specified exception, notifying the
+   * {@link CompletionListener}s that have been added.
+   *
+   * @param e the Exception that occurred
+   * @return <code>true</code> if this call completed the operation,
+   *         <code>false</code> if it was already completed
+   * @throws NullPointerException if the exception is null
+   */
+  public boolean completeExceptionally(Exception e) {
+    if (e == null) {
+      throw new NullPointerException("exception can't be null");
+    }
+    List<CompletionListener> toNotify;
+    synchronized (lock) {
+      if (isCompleted) {
+        return false;
+      }
+      this.exception = e;
+      toNotify = markAsCompleted();
+    }
+    notifyListeners(toNotify);
+    return true;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void addCompletionListener(CompletionListener listener) {
+    if (listener == null) {
+      throw new NullPointerException("CompletionListener can't be null");
+    }
+    synchronized (lock) {
+      if (!isCompleted) {
+        if (listeners == null) {
+          listeners = new ArrayList<CompletionListener>(2);
+        }
+        listeners.add(listener);
+        return;
+      }
+    }
+    notifyListener(listener);
+  }
+
+  /**
+   * Mark operation as completed and wakeup all waiting threads, called under
+   * lock.
+   *
+   * @return the {@link CompletionListener}s to notify, which may be null
+   */
+  private List<CompletionListener> markAsCompleted() {
+    assert Thread.holdsLock(lock);
+    isCompleted = true;
+    lock.notifyAll();
+    List<CompletionListener> toNotify = listeners;
+    listeners = null;
+    return toNotify;
+  }
+
+  /**
+   * Notifies the specified {@link CompletionListener}s, called without the
+   * lock so that listeners may call {@link #get()}.  All listeners are notified
+   * even if one of them fails, after which the first failure is rethrown.
+   *
+   * @param toNotify the {@link CompletionListener}s, may be null
+   */
+  private void notifyListeners(List<CompletionListener> toNotify) {
+    if (toNotify == null) {
+      return;
+    }
+    RuntimeException failure = null;
+    for (CompletionListener listener : toNotify) {
+      try {
+        notifyListener(listener);
+      } catch (RuntimeException e) {
+        if (failure == null) {
+          failure = e;
+        }
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  /**
+   * Notifies a {@link CompletionListener} of the completed operation.
+   *
+   * @param listener the {@link CompletionListener}
+   */
+  private void notifyListener(CompletionListener listener) {
+    Exception e;
+    synchronized (lock) {
+      e = exception;
+    }
+    if (e == null) {
+      listener.onCompletion();
+    } else {
+      listener.onException(e);
+    }
+  }
+
+  /**
+   * Cancelling is not supported, always throws exception.
+   *
+   * @throws UnsupportedOperationException thrown always
+   */
+  @Override
+  public boolean cancel(boolean b) {
+    throw new UnsupportedOperationException("CompletableCacheFutures can't be cancelled");
+  }
+
+  /**
+   * Cancelling is not supported, always returns false
+   *
+   * @return always false.
+   */
+  @Override
+  public boolean isCancelled() {
+    return false;
+  }
+
+  @Override
+  public boolean isDone() {
+    synchronized (lock) {
+      return isCompleted;
+    }
+  }
+
+  /**
+   * Waits if necessary for the operation to complete, and then returns its
+   * result.
+   *
+   * @return the result of the operation
+   * @throws ExecutionException if the operation completed exceptionally.
+   * This wraps the exception provided to {@link
+   * #completeExceptionally(Exception)}
+   * @throws InterruptedException if the current thread was interrupted
+   * while waiting
+   */
+  @Override
+  public V get() throws InterruptedException, ExecutionException {
+    synchronized (lock) {
+      while (!isCompleted) {
+        lock.wait();
+      }
+      return getResult();
+    }
+  }
+
+  /**
+   * Waits if necessary for at most the given time for the operation
+   * to complete, and then returns its result.
+   *
+   * @param timeout the maximum time to wait
+   * @param unit the time unit of the timeout argument
+   * @return the result of the operation
+   * @throws ExecutionException if the operation completed exceptionally.
+   * This wraps the exception provided to {@link
+   * #completeExceptionally(Exception)}
+   * @throws InterruptedException if the current thread was interrupted
+   * while waiting
+   * @throws TimeoutException if the wait timed out
+   */
+  @Override
+  public V get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+    long endTime = System.nanoTime() + unit.toNanos(timeout);
+    synchronized (lock) {
+      while (!isCompleted) {
+        long waitTime = endTime - System.nanoTime();
+        if (waitTime <= 0) {
+          throw new TimeoutException();
+        }
+        TimeUnit.NANOSECONDS.timedWait(lock, waitTime);
+      }
+      return getResult();
+    }
+  }
+
+  /**
+   * Obtains the result of the completed operation, called under lock.
+   *
+   * @return the result
+   * @throws ExecutionException if the operation completed exceptionally
+   */
+  private V getResult() throws ExecutionException {
+    assert Thread.holdsLock(lock);
+    if (exception != null) {
+      throw new ExecutionException(exception);
+    }
+    return value;
+  }
+}
@@ -166,14 +166,14 @@ public class CompletionListenerFuture implements CompletionListener, Future<Void
    */
   @Override
   public Void get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
-    long endTime = System.currentTimeMillis() + unit.toMillis(timeout);
+    long endTime = System.nanoTime() + unit.toNanos(timeout);
     synchronized (lock) {
       while (!isCompleted) {
-        long waitTime = endTime - System.currentTimeMillis();
+        long waitTime = endTime - System.nanoTime();
         if (waitTime <= 0) {
           throw new TimeoutException();
         }
-        lock.wait(waitTime);
+        TimeUnit.NANOSECONDS.timedWait(lock, waitTime);
       }
       if (exception != null) {
         throw new ExecutionException(exception);
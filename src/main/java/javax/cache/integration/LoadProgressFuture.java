@@ -0,0 +1,136 @@
+/**
+ * Copyright 2011-2016 Terracotta, Inc.
+ * Copyright 2011-2016 Oracle America Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.cache.integration;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A LoadProgressFuture is a {@link CompletionListenerFuture} that records the
+ * progress of a chunked
+ * {@link javax.cache.Cache#loadAll(java.util.Set, boolean, int, int,
+ * LoadProgressListener)}, including the keys that failed to load.
+ * <p>
+ * For example:
+ * <pre><code>
+ * LoadProgressFuture&lt;String&gt; future = new LoadProgressFuture&lt;String&gt;();
+ *
+ * cache.loadAll(keys, false, 1000, 16, future);
+ *
+ * while (!future.isDone()) {
+ *   log.info("processed " + future.getProcessedKeyCount() + " of " + keys.size());
+ *   Thread.sleep(1000);
+ * }
+ *
+ * List&lt;String&gt; retry = future.getFailedKeys();
+ * </code></pre>
+ * <p>
+ * Like a {@link CompletionListenerFuture}, a LoadProgressFuture may only be
+ * used once.
+ *
+ * @param <K> the type of keys
+ * @since 1.2
+ * @see LoadProgressListener
+ */
+public class LoadProgressFuture<K> extends CompletionListenerFuture
+    implements LoadProgressListener<K> {
+
+  private final AtomicLong loadedChunkCount = new AtomicLong();
+  private final AtomicLong failedChunkCount = new AtomicLong();
+  private final AtomicLong processedKeyCount = new AtomicLong();
+  private final AtomicLong loadedCount = new AtomicLong();
+  private final List<K> failedKeys = new ArrayList<K>();
+
+  /**
+   * Constructs a LoadProgressFuture.
+   */
+  public LoadProgressFuture() {
+    super();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void onChunkLoaded(int keyCount, int loadedCount) {
+    this.loadedChunkCount.incrementAndGet();
+    this.processedKeyCount.addAndGet(keyCount);
+    this.loadedCount.addAndGet(loadedCount);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void onChunkFailed(Collection<? extends K> failedKeys, Exception e) {
+    synchronized (this.failedKeys) {
+      this.failedKeys.addAll(failedKeys);
+    }
+    this.failedChunkCount.incrementAndGet();
+    this.processedKeyCount.addAndGet(failedKeys.size());
+  }
+
+  /**
+   * Gets the number of chunks loaded so far.
+   *
+   * @return the number of loaded chunks
+   */
+  public long getLoadedChunkCount() {
+    return loadedChunkCount.get();
+  }
+
+  /**
+   * Gets the number of chunks that failed so far.
+   *
+   * @return the number of failed chunks
+   */
+  public long getFailedChunkCount() {
+    return failedChunkCount.get();
+  }
+
+  /**
+   * Gets the number of keys processed so far, whether loaded or failed.
+   *
+   * @return the number of processed keys
+   */
+  public long getProcessedKeyCount() {
+    return processedKeyCount.get();
+  }
+
+  /**
+   * Gets the number of entries loaded into the cache so far.
+   *
+   * @return the number of loaded entries
+   */
+  public long getLoadedCount() {
+    return loadedCount.get();
+  }
+
+  /**
+   * Gets the keys that failed to load so far.
+   *
+   * @return an unmodifiable copy of the failed keys
+   */
+  public List<K> getFailedKeys() {
+    synchronized (failedKeys) {
+      return Collections.unmodifiableList(new ArrayList<K>(failedKeys));
+    }
+  }
+}
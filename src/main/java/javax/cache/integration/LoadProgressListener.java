@@ -0,0 +1,69 @@
+/**
+ * Copyright 2011-2016 Terracotta, Inc.
+ * Copyright 2011-2016 Oracle America Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.cache.integration;
+
+import java.util.Collection;
+
+/**
+ * A LoadProgressListener is a {@link CompletionListener} that is also notified
+ * as each chunk of keys of a chunked
+ * {@link javax.cache.Cache#loadAll(java.util.Set, boolean, int, int,
+ * LoadProgressListener)} is processed.
+ * <p>
+ * A chunk is either loaded, in which case
+ * {@link #onChunkLoaded(int, int)} is called, or fails, in which case
+ * {@link #onChunkFailed(Collection, Exception)} is called with the keys that
+ * could not be loaded.  Once every chunk has been processed,
+ * {@link #onCompletion()} is called if all chunks were loaded, otherwise
+ * {@link #onException(Exception)} is called with a
+ * {@link CacheLoaderException}.
+ * <p>
+ * As chunks are loaded in parallel, the chunk methods may be called
+ * concurrently from implementation specific threads, and must be thread-safe.
+ * They are always called before the final {@link #onCompletion()} or
+ * {@link #onException(Exception)}.
+ *
+ * @param <K> the type of keys
+ * @since 1.2
+ * @see LoadProgressFuture
+ */
+public interface LoadProgressListener<K> extends CompletionListener {
+
+  /**
+   * Notifies the application that a chunk of keys has been loaded.
+   *
+   * @param keyCount    the number of keys in the chunk
+   * @param loadedCount the number of entries loaded into the cache, which may
+   *                    be fewer than the keys when the {@link CacheLoader}
+   *                    can't load some of them, or when existing values are
+   *                    not replaced
+   */
+  void onChunkLoaded(int keyCount, int loadedCount);
+
+  /**
+   * Notifies the application that a chunk of keys, or part of it, failed to
+   * load.
+   * <p>
+   * Implementations may retry the keys of a failed chunk in smaller chunks, so
+   * that only the keys that fail are reported.  Keys that were loaded in a
+   * retry are reported with {@link #onChunkLoaded(int, int)}.
+   *
+   * @param failedKeys the keys that could not be loaded
+   * @param e          the Exception that occurred
+   */
+  void onChunkFailed(Collection<? extends K> failedKeys, Exception e);
+}
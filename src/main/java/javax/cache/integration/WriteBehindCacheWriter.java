@@ -0,0 +1,917 @@
+/**
+ * Copyright 2011-2016 Terracotta, Inc.
+ * Copyright 2011-2016 Oracle America Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.cache.integration;
+
+import javax.cache.Cache;
+import javax.cache.configuration.Factory;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A {@link CacheWriter} that queues writes and deletes and applies them to
+ * another {@link CacheWriter} in the background, using
+ * {@link CacheWriter#writeAll(Collection)} and
+ * {@link CacheWriter#deleteAll(Collection)}, providing "write-behind" caching.
+ * <p>
+ * When configured as the {@link CacheWriter} of a "write-through"
+ * {@link Cache}, cache mutations return as soon as they have been queued,
+ * rather than waiting for the underlying {@link CacheWriter}.  Queued
+ * mutations are coalesced, so that only the last write or delete of a key is
+ * applied, and are flushed in batches of up to a maximum size once a batch is
+ * full or the oldest queued mutation has waited for the maximum delay.  The
+ * number of queued keys is bounded; when the bound is reached, mutations of
+ * further keys wait for a flush.
+ * <p>
+ * For example:
+ * <pre><code>
+ * configuration.setWriteThrough(true).setCacheWriterFactory(
+ *     WriteBehindCacheWriter.factoryOf(databaseWriterFactory, 500, 1, TimeUnit.SECONDS));
+ * </code></pre>
+ * <p>
+ * As the cache operations complete before the mutations are applied, failures
+ * of the underlying {@link CacheWriter} can't be propagated to the
+ * applications that caused them.  Instead, the mutations a batch failed to
+ * apply, being those left in the collections passed to the underlying
+ * {@link CacheWriter}, are queued again and retried after the maximum delay,
+ * unless a later mutation of the same key has been queued meanwhile.  Once the
+ * retries are exhausted, the mutations are abandoned and reported to a
+ * {@link WriteBehindFailureListener}, which may be configured with
+ * {@link #factoryOf(Factory, int, long, TimeUnit, int, int, Factory)}.  Similarly a {@link CacheLoader} reading
+ * from the same store may not observe queued mutations.
+ * <p>
+ * Should the background thread stop other than by {@link #close()}, for
+ * example because it is interrupted, the queued mutations are reported as
+ * failed and further mutations are refused with a
+ * {@link CacheWriterException}.
+ * <p>
+ * A {@link WriteBehindCacheWriter} is thread-safe.  Caches close
+ * {@link Closeable} writers when they are closed, which flushes the queued
+ * mutations and closes the underlying {@link CacheWriter} if it is
+ * {@link Closeable}.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ * @since 1.2
+ * @see CacheWriter
+ * @see WriteBehindFailureListener
+ */
+public class WriteBehindCacheWriter<K, V> implements CacheWriter<K, V>, Closeable {
+
+  /**
+   * The default maximum number of queued keys, as a multiple of the batch size.
+   */
+  private static final int DEFAULT_MAX_PENDING_BATCHES = 16;
+
+  /**
+   * The default number of times a failed mutation is retried.
+   */
+  public static final int DEFAULT_MAX_RETRIES = 3;
+
+  private final CacheWriter<K, V> writer;
+
+  private final int batchSize;
+
+  private final long maxDelayNanos;
+
+  private final int maxPendingEntries;
+
+  private final int maxRetries;
+
+  private final WriteBehindFailureListener<K, V> failureListener;
+
+  /**
+   * The queued mutations by key, in the order the keys were first queued.
+   */
+  private final LinkedHashMap<Object, Mutation<K, V>> pending =
+      new LinkedHashMap<Object, Mutation<K, V>>();
+
+  private final ReentrantLock lock = new ReentrantLock();
+
+  private final Condition pendingChanged = lock.newCondition();
+
+  private final Condition flushed = lock.newCondition();
+
+  private final Thread flusher;
+
+  private boolean isFlushing;
+
+  private boolean isFlushRequested;
+
+  private boolean isClosed;
+
+  /**
+   * The reason the background thread stopped before the writer was closed, or
+   * <code>null</code> while it is running.
+   */
+  private Throwable stopCause;
+
+  private final AtomicLong coalescedCount = new AtomicLong();
+
+  private final AtomicLong writtenCount = new AtomicLong();
+
+  private final AtomicLong retriedCount = new AtomicLong();
+
+  private final AtomicLong failedCount = new AtomicLong();
+
+  /**
+   * Constructs a {@link WriteBehindCacheWriter} that queues up to 16 batches
+   * of keys and retries failed mutations {@value #DEFAULT_MAX_RETRIES} times.
+   *
+   * @param writer    the {@link CacheWriter} to which mutations are applied
+   * @param batchSize the maximum number of mutations applied together
+   * @param maxDelay  the maximum time a mutation waits for a batch to fill
+   * @param timeUnit  the {@link TimeUnit} of the maxDelay
+   */
+  public WriteBehindCacheWriter(CacheWriter<K, V> writer, int batchSize,
+                                long maxDelay, TimeUnit timeUnit) {
+    this(writer, batchSize, maxDelay, timeUnit, getDefaultMaxPendingEntries(batchSize),
+        DEFAULT_MAX_RETRIES, null);
+  }
+
+  /**
+   * Constructs a {@link WriteBehindCacheWriter}.
+   *
+   * @param writer            the {@link CacheWriter} to which mutations are
+   *                          applied
+   * @param batchSize         the maximum number of mutations applied together
+   * @param maxDelay          the maximum time a mutation waits for a batch to
+   *                          fill, and the delay before a failed mutation is
+   *                          retried
+   * @param timeUnit          the {@link TimeUnit} of the maxDelay
+   * @param maxPendingEntries the maximum number of queued keys
+   * @param maxRetries        the number of times a failed mutation is retried
+   *                          before it is abandoned
+   * @param failureListener   the {@link WriteBehindFailureListener} notified of
+   *                          abandoned mutations, or <code>null</code>
+   * @throws NullPointerException     if the writer or timeUnit is null
+   * @throws IllegalArgumentException if the batchSize is less than 1, the
+   *                                  maxDelay or maxRetries is negative or the
+   *                                  maxPendingEntries is less than the
+   *                                  batchSize
+   */
+  public WriteBehindCacheWriter(CacheWriter<K, V> writer, int batchSize,
+                                long maxDelay, TimeUnit timeUnit,
+                                int maxPendingEntries, int maxRetries,
+                                WriteBehindFailureListener<K, V> failureListener) {
+    if (writer == null) {
+      throw new NullPointerException("writer can't be null");
+    }
+    checkArguments(batchSize, maxDelay, timeUnit, maxPendingEntries, maxRetries);
+    this.writer = writer;
+    this.batchSize = batchSize;
+    this.maxDelayNanos = timeUnit.toNanos(maxDelay);
+    this.maxPendingEntries = maxPendingEntries;
+    this.maxRetries = maxRetries;
+    this.failureListener = failureListener;
+
+    this.flusher = new Thread(new Flusher(), "WriteBehindCacheWriter-" +
+        writer.getClass().getSimpleName());
+    flusher.setDaemon(true);
+    flusher.start();
+  }
+
+  /**
+   * Obtains a {@link Factory} for a {@link WriteBehindCacheWriter}, each
+   * applying mutations to a {@link CacheWriter} created by another
+   * {@link Factory}.
+   *
+   * @param writerFactory the {@link Factory} for the {@link CacheWriter} to
+   *                      which mutations are applied
+   * @param batchSize     the maximum number of mutations applied together
+   * @param maxDelay      the maximum time a mutation waits for a batch to fill
+   * @param timeUnit      the {@link TimeUnit} of the maxDelay
+   * @param <K>           the type of keys
+   * @param <V>           the type of values
+   * @return a {@link Factory} for a {@link WriteBehindCacheWriter}
+   * @throws NullPointerException     if the writerFactory or timeUnit is null
+   * @throws IllegalArgumentException if the batchSize is less than 1 or the
+   *                                  maxDelay is negative
+   */
+  public static <K, V> Factory<CacheWriter<K, V>> factoryOf(
+      Factory<? extends CacheWriter<K, V>> writerFactory, int batchSize,
+      long maxDelay, TimeUnit timeUnit) {
+    return factoryOf(writerFactory, batchSize, maxDelay, timeUnit,
+        getDefaultMaxPendingEntries(batchSize), DEFAULT_MAX_RETRIES, null);
+  }
+
+  /**
+   * Obtains a {@link Factory} for a {@link WriteBehindCacheWriter}, each
+   * applying mutations to a {@link CacheWriter} created by another
+   * {@link Factory} and reporting abandoned mutations to a
+   * {@link WriteBehindFailureListener} created by a further {@link Factory}.
+   *
+   * @param writerFactory          the {@link Factory} for the
+   *                               {@link CacheWriter} to which mutations are
+   *                               applied
+   * @param batchSize              the maximum number of mutations applied
+   *                               together
+   * @param maxDelay               the maximum time a mutation waits for a batch
+   *                               to fill, and the delay before a failed
+   *                               mutation is retried
+   * @param timeUnit               the {@link TimeUnit} of the maxDelay
+   * @param maxPendingEntries      the maximum number of queued keys
+   * @param maxRetries             the number of times a failed mutation is
+   *                               retried before it is abandoned
+   * @param failureListenerFactory the {@link Factory} for the
+   *                               {@link WriteBehindFailureListener} notified
+   *                               of abandoned mutations, or <code>null</code>
+   * @param <K>                    the type of keys
+   * @param <V>                    the type of values
+   * @return a {@link Factory} for a {@link WriteBehindCacheWriter}
+   * @throws NullPointerException     if the writerFactory or timeUnit is null
+   * @throws IllegalArgumentException if the batchSize is less than 1, the
+   *                                  maxDelay or maxRetries is negative or the
+   *                                  maxPendingEntries is less than the
+   *                                  batchSize
+   */
+  public static <K, V> Factory<CacheWriter<K, V>> factoryOf(
+      Factory<? extends CacheWriter<K, V>> writerFactory, int batchSize,
+      long maxDelay, TimeUnit timeUnit, int maxPendingEntries, int maxRetries,
+      Factory<? extends WriteBehindFailureListener<K, V>> failureListenerFactory) {
+    if (writerFactory == null) {
+      throw new NullPointerException("writerFactory can't be null");
+    }
+    checkArguments(batchSize, maxDelay, timeUnit, maxPendingEntries, maxRetries);
+    return new WriteBehindFactory<K, V>(writerFactory, batchSize, timeUnit.toNanos(maxDelay),
+        maxPendingEntries, maxRetries, failureListenerFactory);
+  }
+
+  /**
+   * Queues the write of an entry, replacing any queued mutation of its key.
+   *
+   * @param entry the entry to write
+   * @throws IllegalStateException if the writer is closed
+   * @throws CacheWriterException  if interrupted while waiting to queue, or
+   *                               if the background thread has stopped
+   */
+  @Override
+  public void write(Cache.Entry<? extends K, ? extends V> entry) {
+    enqueue(new Mutation<K, V>(entry.getKey(), entry.getValue(), false));
+  }
+
+  /**
+   * Queues the writes of entries, removing them from the {@link Collection}
+   * once queued.
+   *
+   * @param entries the entries to write
+   * @throws IllegalStateException if the writer is closed
+   * @throws CacheWriterException  if interrupted while waiting to queue, or
+   *                               if the background thread has stopped
+   */
+  @Override
+  public void writeAll(Collection<Cache.Entry<? extends K, ? extends V>> entries) {
+    Iterator<Cache.Entry<? extends K, ? extends V>> iterator = entries.iterator();
+    while (iterator.hasNext()) {
+      write(iterator.next());
+      iterator.remove();
+    }
+  }
+
+  /**
+   * Queues the delete of a key, replacing any queued mutation of the key.
+   *
+   * @param key the key to delete
+   * @throws IllegalStateException if the writer is closed
+   * @throws CacheWriterException  if interrupted while waiting to queue, or
+   *                               if the background thread has stopped
+   */
+  @Override
+  public void delete(Object key) {
+    enqueue(new Mutation<K, V>(key, null, true));
+  }
+
+  /**
+   * Queues the deletes of keys, removing them from the {@link Collection} once
+   * queued.
+   *
+   * @param keys the keys to delete
+   * @throws IllegalStateException if the writer is closed
+   * @throws CacheWriterException  if interrupted while waiting to queue, or
+   *                               if the background thread has stopped
+   */
+  @Override
+  public void deleteAll(Collection<?> keys) {
+    Iterator<?> iterator = keys.iterator();
+    while (iterator.hasNext()) {
+      delete(iterator.next());
+      iterator.remove();
+    }
+  }
+
+  /**
+   * Applies the queued mutations, waiting until they have been applied,
+   * retried or abandoned.
+   *
+   * @throws CacheWriterException if interrupted while waiting, or if the
+   *                              background thread has stopped
+   */
+  public void flush() {
+    lock.lock();
+    try {
+      isFlushRequested = true;
+      pendingChanged.signalAll();
+      while ((!pending.isEmpty() || isFlushing) && stopCause == null) {
+        flushed.await();
+      }
+      checkRunning();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CacheWriterException("Interrupted while flushing", e);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Stops accepting mutations, applies the queued mutations and closes the
+   * underlying {@link CacheWriter} if it is {@link Closeable}.
+   * <p>
+   * Mutations that still fail are retried until their retries are exhausted,
+   * while the close waits.
+   *
+   * @throws IOException if the underlying {@link CacheWriter} fails to close
+   */
+  @Override
+  public void close() throws IOException {
+    lock.lock();
+    try {
+      if (isClosed) {
+        return;
+      }
+      isClosed = true;
+      pendingChanged.signalAll();
+    } finally {
+      lock.unlock();
+    }
+
+    boolean isInterrupted = false;
+    while (flusher.isAlive()) {
+      try {
+        flusher.join();
+      } catch (InterruptedException e) {
+        isInterrupted = true;
+      }
+    }
+    if (isInterrupted) {
+      Thread.currentThread().interrupt();
+    }
+
+    if (writer instanceof Closeable) {
+      ((Closeable) writer).close();
+    }
+  }
+
+  /**
+   * Gets the number of keys with queued mutations.
+   *
+   * @return the number of queued keys
+   */
+  public int getPendingCount() {
+    lock.lock();
+    try {
+      return pending.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Gets the number of mutations replaced by a later mutation of the same key
+   * before being applied.
+   *
+   * @return the number of coalesced mutations
+   */
+  public long getCoalescedCount() {
+    return coalescedCount.get();
+  }
+
+  /**
+   * Gets the number of mutations applied to the underlying {@link CacheWriter}.
+   *
+   * @return the number of applied mutations
+   */
+  public long getWrittenCount() {
+    return writtenCount.get();
+  }
+
+  /**
+   * Gets the number of times failed mutations were queued again to be
+   * retried.
+   *
+   * @return the number of retries
+   */
+  public long getRetriedCount() {
+    return retriedCount.get();
+  }
+
+  /**
+   * Gets the number of mutations abandoned after the underlying
+   * {@link CacheWriter} failed to apply them, or because the background thread
+   * stopped.
+   *
+   * @return the number of failed mutations
+   */
+  public long getFailedCount() {
+    return failedCount.get();
+  }
+
+  /**
+   * Determines the default maximum number of queued keys for a batch size.
+   *
+   * @param batchSize the maximum number of mutations applied together
+   * @return the default maximum number of queued keys
+   */
+  private static int getDefaultMaxPendingEntries(int batchSize) {
+    return (int) Math.min(Integer.MAX_VALUE, (long) batchSize * DEFAULT_MAX_PENDING_BATCHES);
+  }
+
+  /**
+   * Validates the arguments of a {@link WriteBehindCacheWriter}.
+   *
+   * @param batchSize         the maximum number of mutations applied together
+   * @param maxDelay          the maximum time a mutation waits for a batch to
+   *                          fill
+   * @param timeUnit          the {@link TimeUnit} of the maxDelay
+   * @param maxPendingEntries the maximum number of queued keys
+   * @param maxRetries        the number of times a failed mutation is retried
+   * @throws NullPointerException     if the timeUnit is null
+   * @throws IllegalArgumentException if an argument is out of range
+   */
+  private static void checkArguments(int batchSize, long maxDelay, TimeUnit timeUnit,
+                                     int maxPendingEntries, int maxRetries) {
+    if (timeUnit == null) {
+      throw new NullPointerException("timeUnit can't be null");
+    }
+    if (batchSize < 1 || maxDelay < 0 || maxRetries < 0 || maxPendingEntries < batchSize) {
+      throw new IllegalArgumentException("batchSize must be at least 1, maxDelay and " +
+          "maxRetries can't be negative and maxPendingEntries can't be less than batchSize");
+    }
+  }
+
+  /**
+   * Ensures the background thread is still applying mutations, called under
+   * lock.
+   *
+   * @throws CacheWriterException if the background thread has stopped
+   */
+  private void checkRunning() {
+    assert lock.isHeldByCurrentThread();
+    if (stopCause != null) {
+      throw new CacheWriterException("The WriteBehindCacheWriter has stopped applying mutations",
+          stopCause);
+    }
+  }
+
+  /**
+   * Queues a mutation, waiting while the maximum number of keys are queued.
+   *
+   * @param mutation the {@link Mutation}
+   */
+  private void enqueue(Mutation<K, V> mutation) {
+    lock.lock();
+    try {
+      while (!isClosed && stopCause == null && pending.size() >= maxPendingEntries &&
+          !pending.containsKey(mutation.key)) {
+        flushed.await();
+      }
+      if (isClosed) {
+        throw new IllegalStateException("WriteBehindCacheWriter is closed");
+      }
+      checkRunning();
+      Mutation<K, V> previous = pending.get(mutation.key);
+      if (previous == null) {
+        pending.put(mutation.key, mutation);
+        if (pending.size() == 1 || pending.size() >= batchSize) {
+          pendingChanged.signalAll();
+        }
+      } else {
+        //keep the position and time of the first mutation of the key
+        previous.replace(mutation);
+        coalescedCount.incrementAndGet();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CacheWriterException("Interrupted while queuing a mutation", e);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Applies a batch of mutations to the underlying {@link CacheWriter},
+   * retrying or abandoning those it fails to apply.
+   *
+   * @param batch the mutations
+   */
+  private void apply(List<Mutation<K, V>> batch) {
+    List<Cache.Entry<? extends K, ? extends V>> entries =
+        new ArrayList<Cache.Entry<? extends K, ? extends V>>();
+    List<Object> keys = new ArrayList<Object>();
+    Map<Object, Mutation<K, V>> mutations = new HashMap<Object, Mutation<K, V>>();
+    for (Mutation<K, V> mutation : batch) {
+      mutations.put(mutation.key, mutation);
+      if (mutation.isDelete) {
+        keys.add(mutation.key);
+      } else {
+        entries.add(mutation.toEntry());
+      }
+    }
+
+    //writers need only remove the mutations they applied from the collections
+    //when they fail, and the deletes are attempted even if the writes fail
+    Throwable writeCause = null;
+    if (!entries.isEmpty()) {
+      try {
+        writer.writeAll(entries);
+        entries.clear();
+      } catch (Throwable t) {
+        writeCause = t;
+      }
+    }
+    Throwable deleteCause = null;
+    if (!keys.isEmpty()) {
+      try {
+        writer.deleteAll(keys);
+        keys.clear();
+      } catch (Throwable t) {
+        deleteCause = t;
+      }
+    }
+    writtenCount.addAndGet(batch.size() - entries.size() - keys.size());
+
+    List<Mutation<K, V>> failedWrites = new ArrayList<Mutation<K, V>>();
+    for (Cache.Entry<? extends K, ? extends V> entry : entries) {
+      failedWrites.add(mutations.get(entry.getKey()));
+    }
+    retryOrAbandon(failedWrites, writeCause);
+
+    List<Mutation<K, V>> failedDeletes = new ArrayList<Mutation<K, V>>();
+    for (Object key : keys) {
+      failedDeletes.add(mutations.get(key));
+    }
+    retryOrAbandon(failedDeletes, deleteCause);
+  }
+
+  /**
+   * Queues failed mutations again, unless their retries are exhausted or a
+   * later mutation of the same key is queued, and reports those abandoned.
+   *
+   * @param failed the failed mutations
+   * @param cause  the reason they failed
+   */
+  private void retryOrAbandon(List<Mutation<K, V>> failed, Throwable cause) {
+    if (failed.isEmpty()) {
+      return;
+    }
+    List<Mutation<K, V>> abandoned = new ArrayList<Mutation<K, V>>();
+    lock.lock();
+    try {
+      for (Mutation<K, V> mutation : failed) {
+        if (pending.containsKey(mutation.key)) {
+          //superseded by a later mutation of the key
+          coalescedCount.incrementAndGet();
+        } else if (mutation.attempts < maxRetries && stopCause == null) {
+          mutation.retry();
+          pending.put(mutation.key, mutation);
+          retriedCount.incrementAndGet();
+        } else {
+          abandoned.add(mutation);
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+    abandon(abandoned, cause);
+  }
+
+  /**
+   * Counts and reports mutations that won't be applied.
+   *
+   * @param abandoned the mutations
+   * @param cause     the reason they won't be applied
+   */
+  private void abandon(List<Mutation<K, V>> abandoned, Throwable cause) {
+    if (abandoned.isEmpty()) {
+      return;
+    }
+    failedCount.addAndGet(abandoned.size());
+    if (failureListener == null) {
+      return;
+    }
+
+    List<Cache.Entry<? extends K, ? extends V>> entries =
+        new ArrayList<Cache.Entry<? extends K, ? extends V>>();
+    List<Object> keys = new ArrayList<Object>();
+    for (Mutation<K, V> mutation : abandoned) {
+      if (mutation.isDelete) {
+        keys.add(mutation.key);
+      } else {
+        entries.add(mutation.toEntry());
+      }
+    }
+    try {
+      failureListener.onFailure(entries, keys, cause);
+    } catch (Throwable t) {
+      //the listener can't affect the flushing of mutations
+    }
+  }
+
+  /**
+   * Applies batches of queued mutations until closed and the queue is empty.
+   */
+  private final class Flusher implements Runnable {
+
+    @Override
+    public void run() {
+      Throwable cause = null;
+      try {
+        flushUntilClosed();
+      } catch (InterruptedException e) {
+        cause = e;
+      } catch (Throwable t) {
+        cause = t;
+      } finally {
+        if (cause != null || !isClosed()) {
+          stop(cause == null ? new IllegalStateException("stopped unexpectedly") : cause);
+        }
+      }
+    }
+
+    /**
+     * Determines if the writer is closed.
+     *
+     * @return <code>true</code> if closed
+     */
+    private boolean isClosed() {
+      lock.lock();
+      try {
+        return isClosed;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    /**
+     * Stops accepting mutations after the thread has stopped other than by
+     * {@link #close()}, abandoning those that are queued.
+     *
+     * @param cause the reason the thread stopped
+     */
+    private void stop(Throwable cause) {
+      List<Mutation<K, V>> abandoned;
+      lock.lock();
+      try {
+        stopCause = cause;
+        abandoned = new ArrayList<Mutation<K, V>>(pending.values());
+        pending.clear();
+        isFlushing = false;
+        flushed.signalAll();
+      } finally {
+        lock.unlock();
+      }
+      abandon(abandoned, cause);
+    }
+
+    /**
+     * Applies batches until closed and the queue is empty.
+     *
+     * @throws InterruptedException if the thread is interrupted
+     */
+    private void flushUntilClosed() throws InterruptedException {
+      lock.lock();
+      try {
+        while (true) {
+          while (pending.isEmpty() && !isClosed) {
+            isFlushRequested = false;
+            flushed.signalAll();
+            pendingChanged.await();
+          }
+          if (pending.isEmpty()) {
+            flushed.signalAll();
+            return;
+          }
+
+          //retries wait for the maximum delay, even while flushing or closing
+          long now = System.nanoTime();
+          long retryDelay = Long.MAX_VALUE;
+          List<Mutation<K, V>> batch = new ArrayList<Mutation<K, V>>();
+          for (Mutation<K, V> mutation : pending.values()) {
+            long remaining = mutation.queuedNanos + maxDelayNanos - now;
+            if (mutation.attempts > 0 && remaining > 0) {
+              retryDelay = Math.min(retryDelay, remaining);
+            } else if (batch.size() < batchSize) {
+              batch.add(mutation);
+            }
+          }
+          if (batch.isEmpty()) {
+            pendingChanged.awaitNanos(retryDelay);
+            continue;
+          }
+          long remaining = batch.get(0).queuedNanos + maxDelayNanos - now;
+          if (batch.size() < batchSize && !isClosed && !isFlushRequested && remaining > 0) {
+            pendingChanged.awaitNanos(Math.min(remaining, retryDelay));
+            continue;
+          }
+
+          for (Mutation<K, V> mutation : batch) {
+            pending.remove(mutation.key);
+          }
+          isFlushing = true;
+          flushed.signalAll();
+
+          lock.unlock();
+          try {
+            apply(batch);
+          } finally {
+            lock.lock();
+            isFlushing = false;
+          }
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  /**
+   * A queued write or delete of a key.
+   *
+   * @param <K> the type of keys
+   * @param <V> the type of values
+   */
+  private static final class Mutation<K, V> {
+
+    private final Object key;
+
+    private long queuedNanos;
+
+    private int attempts;
+
+    private V value;
+
+    private boolean isDelete;
+
+    Mutation(Object key, V value, boolean isDelete) {
+      this.key = key;
+      this.value = value;
+      this.isDelete = isDelete;
+      this.queuedNanos = System.nanoTime();
+      this.attempts = 0;
+    }
+
+    void replace(Mutation<K, V> mutation) {
+      this.value = mutation.value;
+      this.isDelete = mutation.isDelete;
+      this.attempts = 0;
+    }
+
+    /**
+     * Prepares a failed mutation to be queued again, waiting the maximum delay
+     * before it is retried.
+     */
+    void retry() {
+      this.attempts++;
+      this.queuedNanos = System.nanoTime();
+    }
+
+    @SuppressWarnings("unchecked")
+    Cache.Entry<K, V> toEntry() {
+      return new MutationEntry<K, V>((K) key, value);
+    }
+  }
+
+  /**
+   * The {@link Cache.Entry} written for a queued write.
+   *
+   * @param <K> the type of keys
+   * @param <V> the type of values
+   */
+  private static final class MutationEntry<K, V> implements Cache.Entry<K, V> {
+
+    private final K key;
+
+    private final V value;
+
+    MutationEntry(K key, V value) {
+      this.key = key;
+      this.value = value;
+    }
+
+    @Override
+    public K getKey() {
+      return key;
+    }
+
+    @Override
+    public V getValue() {
+      return value;
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> clazz) {
+      if (clazz.isInstance(this)) {
+        return clazz.cast(this);
+      }
+      throw new IllegalArgumentException("Unwrapping to " + clazz + " is not supported");
+    }
+  }
+
+  /**
+   * A {@link Factory} for {@link WriteBehindCacheWriter}s.
+   *
+   * @param <K> the type of keys
+   * @param <V> the type of values
+   */
+  private static final class WriteBehindFactory<K, V>
+      implements Factory<CacheWriter<K, V>>, Serializable {
+
+    private static final long serialVersionUID = 201610172101L;
+
+    private final Factory<? extends CacheWriter<K, V>> writerFactory;
+
+    private final int batchSize;
+
+    private final long maxDelayNanos;
+
+    private final int maxPendingEntries;
+
+    private final int maxRetries;
+
+    private final Factory<? extends WriteBehindFailureListener<K, V>> failureListenerFactory;
+
+    WriteBehindFactory(Factory<? extends CacheWriter<K, V>> writerFactory, int batchSize,
+                       long maxDelayNanos, int maxPendingEntries, int maxRetries,
+                       Factory<? extends WriteBehindFailureListener<K, V>> failureListenerFactory) {
+      this.writerFactory = writerFactory;
+      this.batchSize = batchSize;
+      this.maxDelayNanos = maxDelayNanos;
+      this.maxPendingEntries = maxPendingEntries;
+      this.maxRetries = maxRetries;
+      this.failureListenerFactory = failureListenerFactory;
+    }
+
+    @Override
+    public CacheWriter<K, V> create() {
+      WriteBehindFailureListener<K, V> failureListener =
+          failureListenerFactory == null ? null : failureListenerFactory.create();
+      return new WriteBehindCacheWriter<K, V>(writerFactory.create(), batchSize,
+          maxDelayNanos, TimeUnit.NANOSECONDS, maxPendingEntries, maxRetries, failureListener);
+    }
+
+    @Override
+    public int hashCode() {
+      final int prime = 31;
+      int result = 1;
+      result = prime * result + writerFactory.hashCode();
+      result = prime * result + batchSize;
+      result = prime * result + (int) (maxDelayNanos ^ (maxDelayNanos >>> 32));
+      result = prime * result + maxPendingEntries;
+      result = prime * result + maxRetries;
+      result = prime * result
+          + (failureListenerFactory == null ? 0 : failureListenerFactory.hashCode());
+      return result;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+      if (this == object) {
+        return true;
+      }
+      if (!(object instanceof WriteBehindFactory)) {
+        return false;
+      }
+      WriteBehindFactory<?, ?> other = (WriteBehindFactory<?, ?>) object;
+      return batchSize == other.batchSize && maxDelayNanos == other.maxDelayNanos &&
+          maxPendingEntries == other.maxPendingEntries && maxRetries == other.maxRetries &&
+          writerFactory.equals(other.writerFactory) &&
+          (failureListenerFactory == null ? other.failureListenerFactory == null
+              : failureListenerFactory.equals(other.failureListenerFactory));
+    }
+  }
+}
@@ -0,0 +1,54 @@
+/**
+ * Copyright 2011-2016 Terracotta, Inc.
+ * Copyright 2011-2016 Oracle America Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.cache.integration;
+
+import javax.cache.Cache;
+import java.util.Collection;
+
+/**
+ * A WriteBehindFailureListener is implemented by an application that needs to
+ * recover the mutations a {@link WriteBehindCacheWriter} could not apply to
+ * its underlying {@link CacheWriter}.
+ * <p>
+ * As the cache operations that caused the mutations have already completed,
+ * the listener is the only place the failed entries and keys are available,
+ * for example to be logged or written to a dead letter store for replay.
+ * <p>
+ * The listener is called on the background thread of the
+ * {@link WriteBehindCacheWriter}, and should return promptly.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ * @since 1.2
+ * @see WriteBehindCacheWriter
+ */
+public interface WriteBehindFailureListener<K, V> {
+
+  /**
+   * Notifies the application that mutations could not be applied and have
+   * been abandoned, after any retries.
+   *
+   * @param unwrittenEntries the entries that were not written, possibly empty
+   * @param undeletedKeys    the keys that were not deleted, possibly empty
+   * @param cause            the exception or error of the last attempt, or an
+   *                         exception describing why the
+   *                         {@link WriteBehindCacheWriter} stopped
+   */
+  void onFailure(Collection<Cache.Entry<? extends K, ? extends V>> unwrittenEntries,
+                 Collection<Object> undeletedKeys,
+                 Throwable cause);
+}
@@ -21,7 +21,9 @@
  * In addition a common idiom is to use a loader to initially
  * populate or refresh a cache. For that purpose there is the
  * {@link javax.cache.Cache#loadAll(java.util.Set, boolean, CompletionListener)}
- * method.
+ * method, and for large key sets its chunked, parallel variant
+ * {@link javax.cache.Cache#loadAll(java.util.Set, boolean, int, int,
+ * LoadProgressListener)}.
  *
  * @author Greg Luck
  * @since 1.0
@@ -0,0 +1,69 @@
+/**
+ * Copyright 2011-2016 Terracotta, Inc.
+ * Copyright 2011-2016 Oracle America Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.cache.serialization;
+
+import javax.cache.configuration.Factory;
+import javax.cache.configuration.FactoryBuilder;
+import java.io.Serializable;
+
+/**
+ * A {@link Copier} for byte arrays that copies the array directly, rather
+ * than through a {@link Serializer}.
+ *
+ * @since 1.2
+ * @see ByteArraySerializer
+ */
+public final class ByteArrayCopier implements Copier<byte[]>, Serializable {
+
+  /**
+   * The serialVersionUID required for {@link java.io.Serializable}.
+   */
+  public static final long serialVersionUID = 202610171301L;
+
+  /**
+   * Obtains a {@link Factory} for a {@link ByteArrayCopier}.
+   *
+   * @return a {@link Factory} for a {@link ByteArrayCopier}
+   */
+  public static Factory<Copier<byte[]>> factoryOf() {
+    return new FactoryBuilder.SingletonFactory<Copier<byte[]>>(new ByteArrayCopier());
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public byte[] copy(byte[] object) {
+    return object == null ? null : object.clone();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int hashCode() {
+    return ByteArrayCopier.class.hashCode();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof ByteArrayCopier;
+  }
+}
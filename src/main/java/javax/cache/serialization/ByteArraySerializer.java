@@ -0,0 +1,82 @@
+/**
+ * Copyright 2011-2016 Terracotta, Inc.
+ * Copyright 2011-2016 Oracle America Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.cache.serialization;
+
+import javax.cache.configuration.Factory;
+import javax.cache.configuration.FactoryBuilder;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link Serializer} for byte arrays that passes the bytes through
+ * unchanged, for applications that cache values they have already serialized.
+ * <p>
+ * Serializing wraps the array without copying it.
+ *
+ * @since 1.2
+ * @see ByteArrayCopier
+ */
+public final class ByteArraySerializer implements Serializer<byte[]>, Serializable {
+
+  /**
+   * The serialVersionUID required for {@link java.io.Serializable}.
+   */
+  public static final long serialVersionUID = 202610171302L;
+
+  /**
+   * Obtains a {@link Factory} for a {@link ByteArraySerializer}.
+   *
+   * @return a {@link Factory} for a {@link ByteArraySerializer}
+   */
+  public static Factory<Serializer<byte[]>> factoryOf() {
+    return new FactoryBuilder.SingletonFactory<Serializer<byte[]>>(new ByteArraySerializer());
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public ByteBuffer serialize(byte[] object) {
+    return ByteBuffer.wrap(object);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public byte[] deserialize(ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.duplicate().get(bytes);
+    return bytes;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int hashCode() {
+    return ByteArraySerializer.class.hashCode();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof ByteArraySerializer;
+  }
+}
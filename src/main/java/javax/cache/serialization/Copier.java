@@ -0,0 +1,46 @@
+/**
+ * Copyright 2011-2016 Terracotta, Inc.
+ * Copyright 2011-2016 Oracle America Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.cache.serialization;
+
+import javax.cache.CacheException;
+
+/**
+ * Copies keys and values for caches configured with store-by-value semantics,
+ * as they are stored in and returned from a cache.
+ * <p>
+ * A {@link Copier} must be thread-safe, as it may be used concurrently by a
+ * cache.  The copy of an object must be equal to the object, and mutating
+ * either must not affect the other.  {@link Copier}s for immutable types may
+ * therefore return the object itself, avoiding the cost of copying.
+ *
+ * @param <T> the type of object copied
+ * @since 1.2
+ * @see javax.cache.configuration.Configuration#isStoreByValue()
+ * @see javax.cache.configuration.CompleteConfiguration#getValueCopierFactory()
+ */
+public interface Copier<T> {
+
+  /**
+   * Copies an object.
+   *
+   * @param object the object to copy
+   * @return an independent copy of the object, or the object itself if it is
+   *         immutable
+   * @throws CacheException if the object can't be copied
+   */
+  T copy(T object) throws CacheException;
+}
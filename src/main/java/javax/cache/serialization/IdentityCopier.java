@@ -0,0 +1,75 @@
+/**
+ * Copyright 2011-2016 Terracotta, Inc.
+ * Copyright 2011-2016 Oracle America Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.cache.serialization;
+
+import javax.cache.configuration.Factory;
+import javax.cache.configuration.FactoryBuilder;
+import java.io.Serializable;
+
+/**
+ * A {@link Copier} that does not copy, returning the object itself, for use
+ * with immutable types such as {@link String}s, {@link Number}s and
+ * application value objects that can't be mutated.
+ * <p>
+ * Using an {@link IdentityCopier} for mutable types breaks store-by-value
+ * semantics, as mutations by the application become visible in the cache.
+ *
+ * @param <T> the type of object copied
+ * @since 1.2
+ * @see Copier
+ */
+public final class IdentityCopier<T> implements Copier<T>, Serializable {
+
+  /**
+   * The serialVersionUID required for {@link java.io.Serializable}.
+   */
+  public static final long serialVersionUID = 202610171300L;
+
+  /**
+   * Obtains a {@link Factory} for an {@link IdentityCopier}.
+   *
+   * @param <T> the type of object copied
+   * @return a {@link Factory} for an {@link IdentityCopier}
+   */
+  public static <T> Factory<Copier<T>> factoryOf() {
+    return new FactoryBuilder.SingletonFactory<Copier<T>>(new IdentityCopier<T>());
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public T copy(T object) {
+    return object;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int hashCode() {
+    return IdentityCopier.class.hashCode();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof IdentityCopier;
+  }
+}
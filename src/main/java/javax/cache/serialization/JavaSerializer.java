@@ -0,0 +1,150 @@
+/**
+ * Copyright 2011-2016 Terracotta, Inc.
+ * Copyright 2011-2016 Oracle America Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.cache.serialization;
+
+import javax.cache.CacheException;
+import javax.cache.configuration.Factory;
+import javax.cache.configuration.FactoryBuilder;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link Serializer} that uses Java serialization, for objects that
+ * implement {@link Serializable}.
+ * <p>
+ * Classes are resolved using the context {@link ClassLoader} of the
+ * deserializing thread, falling back to the default resolution of an
+ * {@link ObjectInputStream}, which uses the nearest user-defined
+ * {@link ClassLoader} on the call stack.
+ *
+ * @param <T> the type of object serialized
+ * @since 1.2
+ * @see SerializingCopier
+ */
+public final class JavaSerializer<T> implements Serializer<T>, Serializable {
+
+  /**
+   * The serialVersionUID required for {@link java.io.Serializable}.
+   */
+  public static final long serialVersionUID = 202610171303L;
+
+  /**
+   * Obtains a {@link Factory} for a {@link JavaSerializer}.
+   *
+   * @param <T> the type of object serialized
+   * @return a {@link Factory} for a {@link JavaSerializer}
+   */
+  public static <T> Factory<Serializer<T>> factoryOf() {
+    return new FactoryBuilder.SingletonFactory<Serializer<T>>(new JavaSerializer<T>());
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public ByteBuffer serialize(T object) throws CacheException {
+    try {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      ObjectOutputStream output = new ObjectOutputStream(bytes);
+      try {
+        output.writeObject(object);
+      } finally {
+        output.close();
+      }
+      return ByteBuffer.wrap(bytes.toByteArray());
+    } catch (IOException e) {
+      throw new CacheException("Failed to serialize " + object.getClass().getName(), e);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public T deserialize(ByteBuffer buffer) throws CacheException {
+    InputStream bytes;
+    if (buffer.hasArray()) {
+      bytes = new ByteArrayInputStream(buffer.array(),
+          buffer.arrayOffset() + buffer.position(), buffer.remaining());
+    } else {
+      byte[] copy = new byte[buffer.remaining()];
+      buffer.duplicate().get(copy);
+      bytes = new ByteArrayInputStream(copy);
+    }
+    try {
+      ObjectInputStream input = new ContextClassLoaderObjectInputStream(bytes);
+      try {
+        return (T) input.readObject();
+      } finally {
+        input.close();
+      }
+    } catch (IOException e) {
+      throw new CacheException("Failed to deserialize", e);
+    } catch (ClassNotFoundException e) {
+      throw new CacheException("Failed to deserialize", e);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int hashCode() {
+    return JavaSerializer.class.hashCode();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof JavaSerializer;
+  }
+
+  /**
+   * An {@link ObjectInputStream} that resolves classes using the context
+   * {@link ClassLoader} of the current thread, before the default resolution.
+   */
+  private static final class ContextClassLoaderObjectInputStream extends ObjectInputStream {
+
+    ContextClassLoaderObjectInputStream(InputStream input) throws IOException {
+      super(input);
+    }
+
+    @Override
+    protected Class<?> resolveClass(ObjectStreamClass description)
+        throws IOException, ClassNotFoundException {
+      ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+      if (classLoader != null) {
+        try {
+          return Class.forName(description.getName(), false, classLoader);
+        } catch (ClassNotFoundException e) {
+          //fall back to the default resolution
+        }
+      }
+      return super.resolveClass(description);
+    }
+  }
+}
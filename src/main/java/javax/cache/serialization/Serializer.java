@@ -0,0 +1,61 @@
+/**
+ * Copyright 2011-2016 Terracotta, Inc.
+ * Copyright 2011-2016 Oracle America Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.cache.serialization;
+
+import javax.cache.CacheException;
+import java.nio.ByteBuffer;
+
+/**
+ * Converts objects to and from a binary representation, as required by caches
+ * that store keys or values outside of the Java heap or outside of the Java
+ * Virtual Machine.
+ * <p>
+ * A {@link Serializer} must be thread-safe, as it may be used concurrently by
+ * a cache.  For any object <code>o</code>,
+ * <code>deserialize(serialize(o))</code> must be equal to <code>o</code>.
+ *
+ * @param <T> the type of object serialized
+ * @since 1.2
+ * @see javax.cache.configuration.CompleteConfiguration#getValueSerializerFactory()
+ */
+public interface Serializer<T> {
+
+  /**
+   * Serializes an object.
+   *
+   * @param object the object to serialize
+   * @return a {@link ByteBuffer} whose remaining bytes are the serialized form
+   *         of the object.  The caller may consume but must not otherwise
+   *         modify the contents of the buffer
+   * @throws CacheException if the object can't be serialized
+   */
+  ByteBuffer serialize(T object) throws CacheException;
+
+  /**
+   * Deserializes an object from the remaining bytes of a buffer.
+   * <p>
+   * The buffer is only valid for the duration of the call, so the returned
+   * object must not retain it.  Implementations must not change the position,
+   * limit or contents of the buffer, so that a caller may deserialize the same
+   * buffer again.
+   *
+   * @param buffer the {@link ByteBuffer} containing the serialized form
+   * @return the deserialized object
+   * @throws CacheException if the object can't be deserialized
+   */
+  T deserialize(ByteBuffer buffer) throws CacheException;
+}
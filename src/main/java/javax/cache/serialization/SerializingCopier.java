@@ -0,0 +1,110 @@
+/**
+ * Copyright 2011-2016 Terracotta, Inc.
+ * Copyright 2011-2016 Oracle America Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.cache.serialization;
+
+import javax.cache.CacheException;
+import javax.cache.configuration.Factory;
+import javax.cache.configuration.FactoryBuilder;
+import java.io.Serializable;
+
+/**
+ * A {@link Copier} that copies objects by serializing and then deserializing
+ * them with a {@link Serializer}, by default a {@link JavaSerializer}.
+ * <p>
+ * This is the most general, but also the most expensive, way to copy objects.
+ * Where possible an {@link IdentityCopier} should be used for immutable types,
+ * a {@link ByteArrayCopier} for byte arrays, or a {@link Serializer} faster
+ * than Java serialization.
+ *
+ * @param <T> the type of object copied
+ * @since 1.2
+ */
+public final class SerializingCopier<T> implements Copier<T>, Serializable {
+
+  /**
+   * The serialVersionUID required for {@link java.io.Serializable}.
+   */
+  public static final long serialVersionUID = 202610171304L;
+
+  /**
+   * The {@link Serializer} used to copy objects.
+   */
+  private final Serializer<T> serializer;
+
+  /**
+   * Constructs a {@link SerializingCopier} using a {@link JavaSerializer}.
+   */
+  public SerializingCopier() {
+    this(new JavaSerializer<T>());
+  }
+
+  /**
+   * Constructs a {@link SerializingCopier} using the specified
+   * {@link Serializer}, which must be {@link Serializable} should the
+   * {@link SerializingCopier} be serialized.
+   *
+   * @param serializer the {@link Serializer}
+   * @throws NullPointerException if the serializer is null
+   */
+  public SerializingCopier(Serializer<T> serializer) {
+    if (serializer == null) {
+      throw new NullPointerException("serializer can't be null");
+    }
+    this.serializer = serializer;
+  }
+
+  /**
+   * Obtains a {@link Factory} for a {@link SerializingCopier} using Java
+   * serialization.
+   *
+   * @param <T> the type of object copied
+   * @return a {@link Factory} for a {@link SerializingCopier}
+   */
+  public static <T> Factory<Copier<T>> factoryOf() {
+    return new FactoryBuilder.SingletonFactory<Copier<T>>(new SerializingCopier<T>());
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public T copy(T object) throws CacheException {
+    return object == null ? null : serializer.deserialize(serializer.serialize(object));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int hashCode() {
+    return serializer.hashCode();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean equals(Object other) {
+    if (this == other) {
+      return true;
+    } else if (other instanceof SerializingCopier) {
+      return serializer.equals(((SerializingCopier<?>) other).serializer);
+    } else {
+      return false;
+    }
+  }
+}
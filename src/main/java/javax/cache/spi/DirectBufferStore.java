@@ -0,0 +1,541 @@
+/**
+ * Copyright 2011-2016 Terracotta, Inc.
+ * Copyright 2011-2016 Oracle America Incorporated
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.cache.spi;
+
+import javax.cache.serialization.Serializer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * A reference implementation of an off-heap storage tier, holding serialized
+ * values in direct {@link ByteBuffer}s, that implementations may use to
+ * support {@link javax.cache.configuration.OptionalFeature#OFF_HEAP_STORAGE}.
+ * <p>
+ * Values are serialized into fixed size chunks, whose sizes are powers of two,
+ * allocated from pages of direct memory.  Pages are allocated on demand until
+ * the capacity is reached.  A page is carved into chunks of a single size
+ * while any of its chunks is in use, and returns to a pool of free pages once
+ * all of its chunks are free, from which it may be carved into chunks of
+ * another size.  Memory freed by values of one size is thereby reused for
+ * values of other sizes as the distribution of value sizes shifts.  Keys and
+ * the index of chunks remain on the Java heap, so the heap used is
+ * proportional to the number of entries rather than the size of the values.
+ * <p>
+ * The store is divided into independently locked segments, each with an equal
+ * share of the capacity, so that operations on different keys may proceed
+ * concurrently.  Values are serialized and deserialized outside of the locks.
+ * <p>
+ * A {@link DirectBufferStore} does not evict.  Should there be insufficient
+ * space to store a value, {@link #put(Object, Object)} returns
+ * <code>false</code> and the caller is expected to evict entries, or to hold
+ * the entry elsewhere.
+ *
+ * @param <K> the type of key
+ * @param <V> the type of value
+ * @since 1.2
+ * @see javax.cache.configuration.CompleteConfiguration#getOffHeapSize()
+ */
+public class DirectBufferStore<K, V> {
+
+  /**
+   * The default size of a page of direct memory: 1MB.
+   */
+  public static final int DEFAULT_PAGE_SIZE = 1 << 20;
+
+  /**
+   * The default number of segments.
+   */
+  public static final int DEFAULT_SEGMENT_COUNT = 16;
+
+  /**
+   * The base 2 logarithm of the smallest chunk size: 64 bytes.
+   */
+  private static final int MINIMUM_CHUNK_SHIFT = 6;
+
+  /**
+   * The number of bytes preceding each value in a chunk, holding its length.
+   */
+  private static final int HEADER_SIZE = 4;
+
+  private final Serializer<V> serializer;
+
+  private final Segment<K>[] segments;
+
+  private final int pageShift;
+
+  private final long capacity;
+
+  /**
+   * Constructs a {@link DirectBufferStore} with the default page size and
+   * number of segments.
+   *
+   * @param capacity   the number of bytes of direct memory the store may use
+   * @param serializer the {@link Serializer} for values
+   * @throws IllegalArgumentException if the capacity is less than a page per
+   *                                  segment
+   * @throws NullPointerException     if the serializer is null
+   */
+  public DirectBufferStore(long capacity, Serializer<V> serializer) {
+    this(capacity, DEFAULT_PAGE_SIZE, DEFAULT_SEGMENT_COUNT, serializer);
+  }
+
+  /**
+   * Constructs a {@link DirectBufferStore}.
+   * <p>
+   * The page size is the largest chunk that may be allocated, so values larger
+   * than the page size (less four bytes) can't be stored.  The capacity is
+   * rounded down to whole pages, of which each segment holds at most
+   * {@link Integer#MAX_VALUE}, as reported by {@link #getCapacity()}.
+   *
+   * @param capacity     the number of bytes of direct memory the store may use
+   * @param pageSize     the number of bytes in each page of direct memory, a
+   *                     power of two of at least 64
+   * @param segmentCount the number of independently locked segments, a power
+   *                     of two
+   * @param serializer   the {@link Serializer} for values
+   * @throws IllegalArgumentException if the page size or segment count is not a
+   *                                  power of two, or the capacity is less than
+   *                                  a page per segment
+   * @throws NullPointerException     if the serializer is null
+   */
+  @SuppressWarnings("unchecked")
+  public DirectBufferStore(long capacity, int pageSize, int segmentCount,
+                           Serializer<V> serializer) {
+    if (serializer == null) {
+      throw new NullPointerException("serializer can't be null");
+    }
+    if (Integer.bitCount(pageSize) != 1 || pageSize < (1 << MINIMUM_CHUNK_SHIFT)) {
+      throw new IllegalArgumentException("pageSize must be a power of two of at least 64");
+    }
+    if (Integer.bitCount(segmentCount) != 1) {
+      throw new IllegalArgumentException("segmentCount must be a power of two");
+    }
+    long pagesPerSegment = Math.min(capacity / segmentCount / pageSize, Integer.MAX_VALUE);
+    if (pagesPerSegment < 1) {
+      throw new IllegalArgumentException("capacity must be at least one page per segment");
+    }
+
+    this.serializer = serializer;
+    this.pageShift = Integer.numberOfTrailingZeros(pageSize);
+    this.capacity = pagesPerSegment * pageSize * segmentCount;
+    this.segments = (Segment<K>[]) new Segment<?>[segmentCount];
+    for (int i = 0; i < segmentCount; i++) {
+      segments[i] = new Segment<K>(pageSize, (int) pagesPerSegment,
+          pageShift - MINIMUM_CHUNK_SHIFT + 1);
+    }
+  }
+
+  /**
+   * Gets the value stored for a key.
+   *
+   * @param key the key
+   * @return the deserialized value, or <code>null</code> if none is stored
+   */
+  public V get(K key) {
+    ByteBuffer copy = segmentFor(key).get(key);
+    return copy == null ? null : serializer.deserialize(copy);
+  }
+
+  /**
+   * Determines if a value is stored for a key.
+   *
+   * @param key the key
+   * @return <code>true</code> if a value is stored
+   */
+  public boolean containsKey(K key) {
+    return segmentFor(key).containsKey(key);
+  }
+
+  /**
+   * Stores the value for a key, replacing any previously stored value.
+   * <p>
+   * Should there be insufficient space to store the value, the value is not
+   * stored and any previously stored value for the key is removed.
+   *
+   * @param key   the key
+   * @param value the value
+   * @return <code>true</code> if the value was stored, <code>false</code> if
+   *         there was insufficient space
+   * @throws IllegalArgumentException if the serialized value is larger than a
+   *                                  page
+   */
+  public boolean put(K key, V value) {
+    ByteBuffer serialized = serializer.serialize(value).duplicate();
+    int chunkShift = chunkShiftFor(HEADER_SIZE + serialized.remaining());
+    if (chunkShift > pageShift) {
+      throw new IllegalArgumentException("The serialized value of " +
+          serialized.remaining() + " bytes exceeds the page size");
+    }
+    return segmentFor(key).put(key, serialized, chunkShift - MINIMUM_CHUNK_SHIFT);
+  }
+
+  /**
+   * Removes the value stored for a key.
+   *
+   * @param key the key
+   * @return <code>true</code> if a value was removed
+   */
+  public boolean remove(K key) {
+    return segmentFor(key).remove(key);
+  }
+
+  /**
+   * Removes all values, retaining the allocated direct memory for reuse.
+   */
+  public void clear() {
+    for (Segment<K> segment : segments) {
+      segment.clear();
+    }
+  }
+
+  /**
+   * Gets the number of values stored.
+   *
+   * @return the number of values
+   */
+  public long size() {
+    long size = 0;
+    for (Segment<K> segment : segments) {
+      size += segment.size();
+    }
+    return size;
+  }
+
+  /**
+   * Gets the number of bytes of direct memory the store may use, being whole
+   * pages for each segment.
+   *
+   * @return the capacity in bytes
+   */
+  public long getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Gets the number of bytes of direct memory allocated.
+   *
+   * @return the allocated bytes
+   */
+  public long getAllocatedBytes() {
+    long allocated = 0;
+    for (Segment<K> segment : segments) {
+      allocated += segment.allocatedBytes();
+    }
+    return allocated;
+  }
+
+  /**
+   * Gets the number of bytes of direct memory occupied by chunks holding
+   * values.
+   *
+   * @return the occupied bytes
+   */
+  public long getOccupiedBytes() {
+    long occupied = 0;
+    for (Segment<K> segment : segments) {
+      occupied += segment.occupiedBytes();
+    }
+    return occupied;
+  }
+
+  private Segment<K> segmentFor(K key) {
+    int hash = key.hashCode();
+    hash ^= (hash >>> 16);
+    return segments[hash & (segments.length - 1)];
+  }
+
+  /**
+   * Determines the base 2 logarithm of the smallest chunk that holds the
+   * specified number of bytes.
+   */
+  private static int chunkShiftFor(int size) {
+    return Math.max(MINIMUM_CHUNK_SHIFT, 32 - Integer.numberOfLeadingZeros(size - 1));
+  }
+
+  /**
+   * A segment of a {@link DirectBufferStore}, whose methods are called while
+   * holding its lock.
+   * <p>
+   * Chunks are addressed by a long holding the page index in the upper 32 bits
+   * and the offset within the page in the lower 32 bits.  For each chunk size,
+   * the pages of that size with free chunks are linked in a list, and pages
+   * without chunks in use are linked in a pool of free pages.
+   */
+  private static final class Segment<K> {
+
+    private final HashMap<K, Long> index;
+
+    private final List<Page> pages;
+
+    private final int pageSize;
+
+    private final int maximumPages;
+
+    /**
+     * The first page with free chunks of each chunk class, or
+     * <code>null</code>.
+     */
+    private final Page[] availablePages;
+
+    /**
+     * The first page without chunks in use, or <code>null</code>.
+     */
+    private Page freePages;
+
+    private long occupiedBytes;
+
+    Segment(int pageSize, int maximumPages, int chunkClasses) {
+      this.index = new HashMap<K, Long>();
+      this.pages = new ArrayList<Page>();
+      this.pageSize = pageSize;
+      this.maximumPages = maximumPages;
+      this.availablePages = new Page[chunkClasses];
+      this.freePages = null;
+      this.occupiedBytes = 0;
+    }
+
+    synchronized ByteBuffer get(K key) {
+      Long address = index.get(key);
+      if (address == null) {
+        return null;
+      }
+      ByteBuffer page = pages.get(pageOf(address)).buffer;
+      int offset = offsetOf(address);
+      byte[] copy = new byte[page.getInt(offset)];
+      ByteBuffer source = page.duplicate();
+      source.position(offset + HEADER_SIZE);
+      source.get(copy);
+      return ByteBuffer.wrap(copy);
+    }
+
+    synchronized boolean containsKey(K key) {
+      return index.containsKey(key);
+    }
+
+    synchronized boolean put(K key, ByteBuffer serialized, int chunkClass) {
+      Long previous = index.remove(key);
+      if (previous != null) {
+        free(previous);
+      }
+      long address = allocate(chunkClass);
+      if (address < 0) {
+        return false;
+      }
+      ByteBuffer target = pages.get(pageOf(address)).buffer.duplicate();
+      int offset = offsetOf(address);
+      target.putInt(offset, serialized.remaining());
+      target.position(offset + HEADER_SIZE);
+      target.put(serialized);
+      index.put(key, address);
+      return true;
+    }
+
+    synchronized boolean remove(K key) {
+      Long address = index.remove(key);
+      if (address == null) {
+        return false;
+      }
+      free(address);
+      return true;
+    }
+
+    synchronized void clear() {
+      for (Long address : index.values()) {
+        free(address);
+      }
+      index.clear();
+    }
+
+    synchronized int size() {
+      return index.size();
+    }
+
+    synchronized long allocatedBytes() {
+      return (long) pages.size() * pageSize;
+    }
+
+    synchronized long occupiedBytes() {
+      return occupiedBytes;
+    }
+
+    /**
+     * Allocates a chunk, carving a free page, or failing that a new page,
+     * into chunks of the required size should no page of that size have a
+     * free chunk.
+     *
+     * @return the address of the chunk, or -1 if there is insufficient space
+     */
+    private long allocate(int chunkClass) {
+      Page page = availablePages[chunkClass];
+      if (page == null) {
+        if (freePages != null) {
+          page = freePages;
+          freePages = page.next;
+        } else if (pages.size() < maximumPages) {
+          page = new Page(pages.size(), ByteBuffer.allocateDirect(pageSize));
+          pages.add(page);
+        } else {
+          return -1;
+        }
+        page.carve(chunkClass, chunkClass + MINIMUM_CHUNK_SHIFT);
+        link(page);
+      }
+      int offset = page.allocate();
+      if (page.isFull()) {
+        unlink(page);
+      }
+      occupiedBytes += page.chunkSize;
+      return ((long) page.number << 32) | offset;
+    }
+
+    /**
+     * Frees a chunk, returning its page to the pool of free pages should none
+     * of its chunks remain in use.
+     */
+    private void free(long address) {
+      Page page = pages.get(pageOf(address));
+      boolean wasFull = page.isFull();
+      page.free(offsetOf(address));
+      occupiedBytes -= page.chunkSize;
+      if (page.usedChunks == 0) {
+        if (!wasFull) {
+          unlink(page);
+        }
+        page.next = freePages;
+        page.previous = null;
+        freePages = page;
+      } else if (wasFull) {
+        link(page);
+      }
+    }
+
+    /**
+     * Adds a page to the list of pages with free chunks of its size.
+     */
+    private void link(Page page) {
+      Page first = availablePages[page.chunkClass];
+      page.previous = null;
+      page.next = first;
+      if (first != null) {
+        first.previous = page;
+      }
+      availablePages[page.chunkClass] = page;
+    }
+
+    /**
+     * Removes a page from the list of pages with free chunks of its size.
+     */
+    private void unlink(Page page) {
+      if (page.previous == null) {
+        availablePages[page.chunkClass] = page.next;
+      } else {
+        page.previous.next = page.next;
+      }
+      if (page.next != null) {
+        page.next.previous = page.previous;
+      }
+      page.previous = null;
+      page.next = null;
+    }
+
+    private static int pageOf(long address) {
+      return (int) (address >>> 32);
+    }
+
+    private static int offsetOf(long address) {
+      return (int) address;
+    }
+  }
+
+  /**
+   * A page of direct memory carved into chunks of a single size.
+   * <p>
+   * Chunks are carved lazily, and free chunks are linked through their first
+   * four bytes, so that a page needs no heap proportional to its chunks.
+   */
+  private static final class Page {
+
+    private final int number;
+
+    private final ByteBuffer buffer;
+
+    private int chunkClass;
+
+    private int chunkSize;
+
+    private int chunkCount;
+
+    private int usedChunks;
+
+    /**
+     * The offset of the first chunk that has never been allocated since the
+     * page was carved.
+     */
+    private int carvedOffset;
+
+    /**
+     * The offset of the first freed chunk, or -1 if there is none.
+     */
+    private int freeOffset;
+
+    private Page previous;
+
+    private Page next;
+
+    Page(int number, ByteBuffer buffer) {
+      this.number = number;
+      this.buffer = buffer;
+    }
+
+    /**
+     * Dedicates the page, whose chunks must all be free, to chunks of a size.
+     */
+    void carve(int chunkClass, int chunkShift) {
+      this.chunkClass = chunkClass;
+      this.chunkSize = 1 << chunkShift;
+      this.chunkCount = buffer.capacity() >>> chunkShift;
+      this.usedChunks = 0;
+      this.carvedOffset = 0;
+      this.freeOffset = -1;
+    }
+
+    boolean isFull() {
+      return usedChunks == chunkCount;
+    }
+
+    int allocate() {
+      int offset;
+      if (freeOffset >= 0) {
+        offset = freeOffset;
+        freeOffset = buffer.getInt(offset);
+      } else {
+        offset = carvedOffset;
+        carvedOffset += chunkSize;
+      }
+      usedChunks++;
+      return offset;
+    }
+
+    void free(int offset) {
+      buffer.putInt(offset, freeOffset);
+      freeOffset = offset;
+      usedChunks--;
+    }
+  }
+}